@@ -72,9 +72,9 @@ public class AdvancedOOPDemo {
         for (Drawable drawable : drawables) {
             drawable.draw();
             drawable.display(); // Default method
-            if (drawable instanceof Colorable) {
-                ((Colorable) drawable).setColor("Rainbow");
-                System.out.println("New color: " + ((Colorable) drawable).getColor());
+            if (drawable instanceof Colorable colorable) {
+                colorable.setColor("Rainbow");
+                System.out.println("New color: " + colorable.getColor());
             }
             System.out.println("---");
         }
@@ -97,6 +97,8 @@ public class AdvancedOOPDemo {
         
         // Varargs example
         System.out.println("Sum of 1,2,3,4,5 = " + calc.sum(1, 2, 3, 4, 5));
+        CompiledExpression area = calc.compile("width * height + 2 * (1 + 1)");
+        System.out.println(area.getSource() + " with 3, 4 = " + area.evaluate(new int[] {3, 4}));
     }
     
     private static void demonstrateDesignPatterns() {
@@ -214,7 +216,7 @@ class OuterClass {
 }
 
 // Advanced shape implementations
-interface Drawable {
+sealed interface Drawable permits Triangle, AdvancedCircle, AdvancedRectangle {
     void draw();
     void erase();
     
@@ -223,12 +225,12 @@ interface Drawable {
     }
 }
 
-interface Colorable {
+sealed interface Colorable permits Triangle, AdvancedCircle, AdvancedRectangle {
     void setColor(String color);
     String getColor();
 }
 
-class Triangle implements Drawable, Colorable {
+final class Triangle implements Drawable, Colorable {
     private String color;
     private double side1, side2, side3;
     
@@ -258,9 +260,13 @@ class Triangle implements Drawable, Colorable {
     public String getColor() {
         return color;
     }
+    
+    public double getSide1() { return side1; }
+    public double getSide2() { return side2; }
+    public double getSide3() { return side3; }
 }
 
-class AdvancedCircle extends Circle implements Drawable, Colorable {
+final class AdvancedCircle extends Circle implements Drawable, Colorable {
     public AdvancedCircle(String color, double radius) {
         super(color, radius);
     }
@@ -277,12 +283,11 @@ class AdvancedCircle extends Circle implements Drawable, Colorable {
     
     @Override
     public void setColor(String color) {
-        // Implementation would update the color field
-        System.out.println("Circle color changed to: " + color);
+        this.color = color;
     }
 }
 
-class AdvancedRectangle extends Rectangle implements Drawable, Colorable {
+final class AdvancedRectangle extends Rectangle implements Drawable, Colorable {
     public AdvancedRectangle(String color, double length, double width) {
         super(color, length, width);
     }
@@ -299,7 +304,7 @@ class AdvancedRectangle extends Rectangle implements Drawable, Colorable {
     
     @Override
     public void setColor(String color) {
-        System.out.println("Rectangle color changed to: " + color);
+        this.color = color;
     }
 }
 
@@ -348,6 +353,11 @@ class Calculator {
         return total;
     }
     
+    // Formulas evaluated repeatedly: compile once, then evaluate with reused value arrays
+    public CompiledExpression compile(String formula) {
+        return ExpressionCompiler.compile(formula);
+    }
+    
     // Generic method example
     public <T> void printArray(T[] array) {
         for (T element : array) {
@@ -359,6 +369,7 @@ class Calculator {
 
 // Strategy Pattern implementation
 interface PaymentStrategy {
+    // Throws PaymentNotChargedException if it declined without charging anything
     void pay(double amount);
 }
 
@@ -378,21 +389,49 @@ class PayPalStrategy implements PaymentStrategy {
 
 class PaymentContext {
     private PaymentStrategy strategy;
+    private AdaptivePaymentRouter router = new AdaptivePaymentRouter();
+    private boolean adaptive;
     
+    // Fixed mode: every payment goes to this strategy
     public void setStrategy(PaymentStrategy strategy) {
         this.strategy = strategy;
+        this.adaptive = false;
+    }
+    
+    // Adaptive mode: each payment goes to the fastest healthy registered strategy
+    public void registerStrategy(String name, PaymentStrategy strategy) {
+        router.register(name, strategy);
+        this.adaptive = true;
     }
     
-    public void processPayment(double amount) {
+    public void setRouter(AdaptivePaymentRouter router) {
+        this.router = router;
+        this.adaptive = router.size() > 0;
+    }
+    
+    public AdaptivePaymentRouter getRouter() {
+        return router;
+    }
+    
+    public boolean processPayment(double amount) {
+        if (adaptive) {
+            if (router.route(amount) == null) {
+                System.out.println("❌ Payment of $" + amount + " failed on every strategy");
+                return false;
+            }
+            return true;
+        }
         if (strategy != null) {
             strategy.pay(amount);
+            return true;
         } else {
             System.out.println("No payment strategy set");
+            return false;
         }
     }
 }
 
-// Singleton Pattern (thread-safe)
+// Singleton Pattern (thread-safe); concurrent callers should borrow from ConnectionPool instead
 class DatabaseConnection {
     private static volatile DatabaseConnection instance;
     private String connectionString;
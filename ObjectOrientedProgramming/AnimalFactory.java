@@ -44,15 +44,9 @@ class Cat extends Animal {
 
 // AnimalFactory.java - Factory Pattern implementation
 class AnimalFactory {
+    // Species come from AnimalRegistry; Dog and Cat are shared flyweights
     public static Animal createAnimal(String type) {
-        switch (type.toLowerCase()) {
-            case "dog":
-                return new Dog();
-            case "cat":
-                return new Cat();
-            default:
-                throw new IllegalArgumentException("Unknown animal type: " + type);
-        }
+        return AnimalRegistry.create(type);
     }
     
     // Overloaded method for creating animals with specific characteristics
@@ -0,0 +1,234 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Animal Registry - Pluggable species lookup for the Factory Pattern
+// Species are kept in a small open-addressing table whose hash and equality both
+// ignore case, so a lookup never lower-cases (and never allocates) the type string.
+// Stateless animals are created once and shared as flyweights. New species come from
+// ServiceLoader: put a public AnimalProvider implementation on the classpath and list
+// it in META-INF/services/AnimalProvider.
+
+// AnimalProvider.java - Plugin contract for one species
+interface AnimalProvider {
+    // Lookup key; matched case-insensitively
+    String getSpecies();
+
+    Animal create();
+
+    // True if one shared instance can serve every request
+    default boolean isStateless() {
+        return false;
+    }
+
+    static AnimalProvider of(String species, Supplier<Animal> factory, boolean stateless) {
+        return new AnimalProvider() {
+            @Override
+            public String getSpecies() { return species; }
+
+            @Override
+            public Animal create() { return factory.get(); }
+
+            @Override
+            public boolean isStateless() { return stateless; }
+        };
+    }
+}
+
+// AnimalRegistry.java - Case-insensitive species table with flyweight instances
+final class AnimalRegistry {
+    // Immutable snapshot; registration publishes a new one so lookups need no lock
+    private static final class Table {
+        final String[] keys;
+        final AnimalProvider[] providers;
+        final Animal[] shared;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            providers = new AnimalProvider[capacity];
+            shared = new Animal[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static volatile Table table = new Table(16);
+
+    static {
+        register(AnimalProvider.of("Dog", Dog::new, true));
+        register(AnimalProvider.of("Cat", Cat::new, true));
+        loadPlugins();
+    }
+
+    private AnimalRegistry() {}
+
+    public static Animal create(String type) {
+        Table current = table;
+        int slot = find(current, type);
+        if (current.keys[slot] == null) {
+            throw new IllegalArgumentException("Unknown animal type: " + type);
+        }
+        Animal shared = current.shared[slot];
+        return shared != null ? shared : current.providers[slot].create();
+    }
+
+    public static boolean isRegistered(String type) {
+        Table current = table;
+        return current.keys[find(current, type)] != null;
+    }
+
+    public static synchronized void register(AnimalProvider provider) {
+        String species = provider.getSpecies();
+        if (species == null || species.isEmpty()) {
+            throw new IllegalArgumentException("Species name is required");
+        }
+        if (isRegistered(species)) {
+            throw new IllegalArgumentException("Species already registered: " + species);
+        }
+
+        Table old = table;
+        int count = 1;
+        for (String key : old.keys) {
+            if (key != null) {
+                count++;
+            }
+        }
+        // Keep the table at most half full so probe chains stay short
+        int capacity = old.keys.length;
+        while (count * 2 > capacity) {
+            capacity *= 2;
+        }
+        Table next = new Table(capacity);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != null) {
+                put(next, old.keys[i], old.providers[i], old.shared[i]);
+            }
+        }
+        put(next, species, provider, provider.isStateless() ? provider.create() : null);
+        table = next;
+    }
+
+    // Registered species names, in no particular order
+    public static List<String> getSpecies() {
+        List<String> species = new ArrayList<>();
+        for (String key : table.keys) {
+            if (key != null) {
+                species.add(key);
+            }
+        }
+        return species;
+    }
+
+    private static void loadPlugins() {
+        Iterator<AnimalProvider> plugins = ServiceLoader.load(AnimalProvider.class).iterator();
+        while (true) {
+            try {
+                if (!plugins.hasNext()) {
+                    break;
+                }
+                register(plugins.next());
+            } catch (ServiceConfigurationError | IllegalArgumentException e) {
+                // A broken or duplicate plugin must not take the built-in species down with it
+                System.out.println("⚠️ Skipping animal plugin: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void put(Table target, String key, AnimalProvider provider, Animal shared) {
+        int slot = find(target, key);
+        target.keys[slot] = key;
+        target.providers[slot] = provider;
+        target.shared[slot] = shared;
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private static int find(Table current, String type) {
+        int slot = hashIgnoreCase(type) & current.mask;
+        while (true) {
+            String key = current.keys[slot];
+            if (key == null || equalsIgnoreCase(key, type)) {
+                return slot;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+    }
+
+    // Same result as String.equalsIgnoreCase, with a fast path for ASCII letters
+    private static boolean equalsIgnoreCase(String a, String b) {
+        int length = a.length();
+        if (length != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y && foldCase(x) != foldCase(y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hashIgnoreCase(String value) {
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + foldCase(value.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    // Folds case the way String.equalsIgnoreCase compares characters
+    private static int foldCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? c | 0x20 : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
+
+// AnimalFactoryBenchmark.java - Registry lookup vs the original lower-case-and-switch
+// Run with: java AnimalFactoryBenchmark [iterations]
+class AnimalFactoryBenchmark {
+    private static final String[] TYPES = { "Dog", "cat", "DOG", "Cat", "dog", "CAT" };
+    private static volatile int sink; // keeps results observable so the loops are not removed
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 0; round < 3; round++) {
+            run("Switch  ", iterations, threads, true);
+            run("Registry", iterations, threads, false);
+        }
+    }
+
+    private static void run(String label, int iterations, com.sun.management.ThreadMXBean threads, boolean useSwitch) {
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int total = 0;
+        for (int i = 0; i < iterations; i++) {
+            String type = TYPES[i % TYPES.length];
+            Animal animal = useSwitch ? switchCreate(type) : AnimalRegistry.create(type);
+            total += animal.getSpecies().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink = total;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%s: %.1f ns/op, %.1f bytes/op%n", label, (double) elapsed / iterations,
+            (double) allocated / iterations);
+    }
+
+    // The factory as it was before the registry, kept as the baseline
+    private static Animal switchCreate(String type) {
+        switch (type.toLowerCase()) {
+            case "dog":
+                return new Dog();
+            case "cat":
+                return new Cat();
+            default:
+                throw new IllegalArgumentException("Unknown animal type: " + type);
+        }
+    }
+}
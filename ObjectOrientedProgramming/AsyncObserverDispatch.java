@@ -0,0 +1,408 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// Asynchronous Observer Dispatch - one shared fan-out log read through per-observer cursors
+// Publishing writes the message once into a preallocated ring and wakes a fixed set of
+// worker threads, so its cost does not grow with the number of observers. Each observer
+// only keeps a cursor into the ring; workers own a share of the observers each and move
+// their cursors forward by calling update(). An observer that falls a whole ring behind
+// is handled by the overflow policy. A slow observer never holds up the publisher (except
+// under BLOCK, by design), but it does delay the other observers served by its worker.
+
+// OverflowPolicy.java - What to do when an observer falls a whole buffer behind
+enum OverflowPolicy {
+    BLOCK,     // the publisher waits for the observer to catch up
+    DROP,      // the observer skips the oldest messages it has not seen
+    COALESCE   // the observer skips straight to the newest message
+}
+
+// ObserverCursor.java - One observer's position in the shared log
+class ObserverCursor {
+    private static final int BATCH = 64; // messages per observer per round, for fairness
+
+    private final Observer observer;
+    private volatile long next;       // next log position to deliver
+    private volatile long delivered;  // written by the owning worker only
+    private volatile long dropped;
+    private volatile long coalesced;
+    volatile boolean removed;
+
+    ObserverCursor(Observer observer, long start) {
+        this.observer = observer;
+        this.next = start;
+    }
+
+    long getNext() { return next; }
+
+    // Deliver what is available up to the log tail; returns true if anything happened.
+    // A position is readable only while tail - position < capacity: the publisher
+    // overwrites its slot while writing position + capacity, before tail moves past it.
+    boolean drain(FanOutLog log, OverflowPolicy policy, BooleanSupplier stopped) {
+        long position = next;
+        long tail = log.tail();
+        if (position == tail || removed) {
+            return false;
+        }
+        int count = 0;
+        while (position < tail && count < BATCH && !stopped.getAsBoolean()) {
+            if (tail - position >= log.capacity()) {
+                position = skip(position, tail, log.capacity(), policy);
+            }
+            String message = log.get(position);
+            // The slot may have been reused while we read it; if so, skip as above
+            if (log.tail() - position >= log.capacity()) {
+                tail = log.tail();
+                continue;
+            }
+            try {
+                observer.update(message);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ " + observer.getName() + " failed to handle update: " + e.getMessage());
+            }
+            position++;
+            count++;
+            next = position;
+            delivered++;
+        }
+        next = position;
+        return true;
+    }
+
+    private long skip(long position, long tail, int capacity, OverflowPolicy policy) {
+        long target = policy == OverflowPolicy.COALESCE ? tail - 1 : tail - capacity + 1;
+        if (policy == OverflowPolicy.COALESCE) {
+            coalesced += target - position;
+        } else {
+            dropped += target - position;
+        }
+        return target;
+    }
+
+    DispatchMetrics getMetrics(long tail) {
+        long lag = Math.max(0, tail - next);
+        return new DispatchMetrics(observer.getName(), delivered + lag, delivered, dropped, coalesced);
+    }
+}
+
+// FanOutLog.java - Preallocated ring every observer reads from
+class FanOutLog {
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private volatile long tail; // next position to write; only written under the publish lock
+
+    FanOutLog(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    int capacity() { return mask + 1; }
+    long tail() { return tail; }
+
+    String get(long position) {
+        return slots.get((int) (position & mask));
+    }
+
+    // Caller holds the publish lock
+    void append(String message) {
+        slots.set((int) (tail & mask), message);
+        tail = tail + 1;
+    }
+}
+
+// DispatchMetrics.java - Snapshot of one observer's progress
+class DispatchMetrics {
+    private final String observerName;
+    private final long enqueued;
+    private final long delivered;
+    private final long dropped;
+    private final long coalesced;
+
+    public DispatchMetrics(String observerName, long enqueued, long delivered, long dropped, long coalesced) {
+        this.observerName = observerName;
+        this.enqueued = enqueued;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.coalesced = coalesced;
+    }
+
+    public String getObserverName() { return observerName; }
+    public long getEnqueued() { return enqueued; }
+    public long getDelivered() { return delivered; }
+    public long getDropped() { return dropped; }
+    public long getCoalesced() { return coalesced; }
+
+    // Messages published but not yet handled by the observer
+    public long getLag() { return enqueued - delivered; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: lag=%d delivered=%d dropped=%d coalesced=%d",
+            observerName, getLag(), delivered, dropped, coalesced);
+    }
+}
+
+// AsyncDispatcher.java - Publishes into the fan-out log; workers deliver to observers
+class AsyncDispatcher {
+    private final FanOutLog log;
+    private final OverflowPolicy policy;
+    private final Map<Observer, ObserverCursor> cursors = new ConcurrentHashMap<>();
+    private final Worker[] workers;
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final Condition caughtUp = publishLock.newCondition(); // BLOCK only
+    private int nextWorker;          // guarded by publishLock
+    private volatile boolean closed;
+    private volatile boolean stopped; // workers exit without delivering what is left
+
+    public AsyncDispatcher(int capacity, OverflowPolicy policy) {
+        this(capacity, policy, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    // capacity is rounded up to a power of two; observers are spread over workerCount threads
+    public AsyncDispatcher(int capacity, OverflowPolicy policy, int workerCount) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = 2; // one slot always stays free, so at least two
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.log = new FanOutLog(size);
+        this.policy = policy;
+        this.workers = new Worker[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+            workers[i].thread.start();
+        }
+    }
+
+    // New observers start at the current tail: they see messages published from now on
+    public void register(Observer observer) {
+        Worker worker;
+        publishLock.lock();
+        try {
+            if (closed || cursors.containsKey(observer)) {
+                return;
+            }
+            ObserverCursor cursor = new ObserverCursor(observer, log.tail());
+            cursors.put(observer, cursor);
+            worker = workers[nextWorker++ % workers.length];
+            worker.incoming.add(cursor);
+            worker.hasIncoming = true;
+            worker.incomingFloor = Math.min(worker.incomingFloor, cursor.getNext());
+        } finally {
+            publishLock.unlock();
+        }
+        LockSupport.unpark(worker.thread);
+    }
+
+    // The owning worker drops the cursor on its next round
+    public void unregister(Observer observer) {
+        ObserverCursor cursor = cursors.remove(observer);
+        if (cursor != null) {
+            cursor.removed = true;
+        }
+        if (policy == OverflowPolicy.BLOCK) {
+            for (Worker worker : workers) {
+                LockSupport.unpark(worker.thread); // a blocked publisher may be waiting on it
+            }
+        }
+    }
+
+    // Constant work per message: one slot write and one wake-up per worker, however many
+    // observers there are. Returns false, without queuing, once shut down or if
+    // interrupted while waiting under BLOCK.
+    public boolean publish(String message) {
+        publishLock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (policy == OverflowPolicy.BLOCK) {
+                // Keep tail - position below capacity even after this append, the bound
+                // readers check, so no observer under BLOCK is ever skipped
+                while (!closed && log.tail() + 1 - slowestCursor() >= log.capacity()) {
+                    caughtUp.awaitNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+                if (closed) {
+                    return false;
+                }
+            }
+            log.append(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            publishLock.unlock();
+        }
+        for (Worker worker : workers) {
+            worker.wake();
+        }
+        return true;
+    }
+
+    public List<DispatchMetrics> getMetrics() {
+        long tail = log.tail();
+        List<DispatchMetrics> metrics = new ArrayList<>();
+        for (ObserverCursor cursor : cursors.values()) {
+            metrics.add(cursor.getMetrics(tail));
+        }
+        return metrics;
+    }
+
+    // Stop accepting messages and wait for the published ones to be delivered. If the
+    // timeout runs out (or the wait is interrupted) the workers are stopped instead:
+    // each finishes the update it is running and delivers nothing more, so no worker
+    // calls an observer once this returns. Returns false if updates were left undelivered.
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        publishLock.lock();
+        try {
+            closed = true;
+            caughtUp.signalAll();
+        } finally {
+            publishLock.unlock();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        try {
+            for (Worker worker : workers) {
+                long remaining = deadline - System.nanoTime();
+                worker.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            }
+        } catch (InterruptedException e) {
+            stopWorkers();
+            throw e;
+        }
+        boolean drained = true;
+        for (Worker worker : workers) {
+            drained &= !worker.thread.isAlive();
+        }
+        if (!drained) {
+            stopWorkers();
+        }
+        return drained;
+    }
+
+    private void stopWorkers() {
+        stopped = true;
+        boolean interrupted = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+            while (worker.thread.isAlive()) {
+                try {
+                    worker.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Oldest position any observer still needs. Caller holds publishLock. Each worker
+    // keeps a lower bound for its own observers, so this is O(workers), not O(observers).
+    private long slowestCursor() {
+        long slowest = Long.MAX_VALUE;
+        for (Worker worker : workers) {
+            slowest = Math.min(slowest, Math.min(worker.floor, worker.incomingFloor));
+        }
+        return slowest;
+    }
+
+    private final class Worker {
+        final Queue<ObserverCursor> incoming = new ArrayDeque<>(); // guarded by publishLock
+        long incomingFloor = Long.MAX_VALUE;                       // guarded by publishLock
+        volatile boolean hasIncoming;
+        final List<ObserverCursor> members = new ArrayList<>();    // worker thread only
+        final Thread thread;
+        volatile boolean sleeping;
+        volatile long floor = Long.MAX_VALUE; // no member is behind this position
+
+        Worker(int index) {
+            thread = new Thread(this::run, "observer-dispatch-" + index);
+            thread.setDaemon(true);
+        }
+
+        void wake() {
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            while (!stopped) {
+                adoptIncoming();
+                boolean progressed = false;
+                long slowest = Long.MAX_VALUE;
+                Iterator<ObserverCursor> it = members.iterator();
+                while (it.hasNext()) {
+                    ObserverCursor cursor = it.next();
+                    if (cursor.removed) {
+                        it.remove();
+                        progressed = true; // may unblock a publisher
+                        continue;
+                    }
+                    progressed |= cursor.drain(log, policy, () -> stopped);
+                    slowest = Math.min(slowest, cursor.getNext());
+                }
+                floor = slowest;
+                if (policy == OverflowPolicy.BLOCK && progressed) {
+                    signalPublishers();
+                }
+                if (progressed) {
+                    continue;
+                }
+                long tail = log.tail();
+                if (closed && slowest >= tail) {
+                    return; // everything published has been delivered
+                }
+                // Re-check after announcing we sleep, so a wake-up cannot slip past
+                sleeping = true;
+                if (log.tail() == tail && !closed) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                }
+                sleeping = false;
+            }
+        }
+
+        // Take over newly registered cursors, keeping floor a lower bound throughout
+        private void adoptIncoming() {
+            if (!hasIncoming) {
+                return;
+            }
+            publishLock.lock();
+            try {
+                hasIncoming = false;
+                floor = Math.min(floor, incomingFloor);
+                members.addAll(incoming);
+                incoming.clear();
+                incomingFloor = Long.MAX_VALUE;
+            } finally {
+                publishLock.unlock();
+            }
+        }
+
+        private void signalPublishers() {
+            if (publishLock.tryLock()) {
+                try {
+                    caughtUp.signalAll();
+                } finally {
+                    publishLock.unlock();
+                }
+            } // otherwise the publisher's timed wait picks the progress up
+        }
+    }
+}
@@ -0,0 +1,531 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32;
+
+// Bank Journal - Durable account operations with group commit
+//
+// Every operation is appended to journal.log as
+//   [int length][payload][int crc32(payload)]
+// A single writer thread drains all operations queued since its last write,
+// writes them together and calls force() once for the whole group, so many
+// concurrent callers share the cost of one disk flush.
+// snapshot.dat periodically captures all balances. Taking it rotates journal.log
+// to journal-<sequence>.log, and once the snapshot is safely on disk those rotated
+// segments are deleted, so recovery only reads the records written since.
+
+// JournalRecord.java - One journaled operation
+class JournalRecord {
+    enum Type { OPEN, DEPOSIT, WITHDRAW, TRANSFER }
+
+    private final long sequence;
+    private final Type type;
+    private final String account;
+    private final String counterparty; // destination for TRANSFER, holder name for OPEN
+    private final long amountCents;
+    private final long minimumCents;   // only used by OPEN
+
+    public JournalRecord(long sequence, Type type, String account, String counterparty,
+                         long amountCents, long minimumCents) {
+        this.sequence = sequence;
+        this.type = type;
+        this.account = account;
+        this.counterparty = counterparty;
+        this.amountCents = amountCents;
+        this.minimumCents = minimumCents;
+    }
+
+    public long getSequence() { return sequence; }
+    public Type getType() { return type; }
+    public String getAccount() { return account; }
+    public String getCounterparty() { return counterparty; }
+    public long getAmountCents() { return amountCents; }
+    public long getMinimumCents() { return minimumCents; }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(sequence);
+            out.writeByte(type.ordinal());
+            out.writeUTF(account);
+            out.writeUTF(counterparty);
+            out.writeLong(amountCents);
+            out.writeLong(minimumCents);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalRecord decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        return new JournalRecord(in.readLong(), Type.values()[in.readByte()], in.readUTF(),
+            in.readUTF(), in.readLong(), in.readLong());
+    }
+}
+
+// BankJournal.java - Append-only journal with a group-commit writer thread
+// If a group cannot be written, the file is cut back to where the group started and
+// the journal fails: that group and every later append are rejected, because nothing
+// written after an unknown tail could be trusted to survive recovery.
+class BankJournal implements AutoCloseable {
+    private static final int MAX_GROUP = 4096;
+
+    private static class PendingWrite {
+        final JournalRecord record;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingWrite(JournalRecord record) { this.record = record; }
+    }
+
+    private final FileChannel channel;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Object appendLock = new Object(); // orders appends against close and failure
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong recordsWritten = new AtomicLong();
+
+    public BankJournal(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        writer = new Thread(this::writeLoop, "bank-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Completes once the record is on disk, or exceptionally if the journal failed
+    public CompletableFuture<Void> append(JournalRecord record) {
+        synchronized (appendLock) {
+            if (failure != null) {
+                throw new IllegalStateException("Journal failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            PendingWrite write = new PendingWrite(record);
+            queue.add(write);
+            return write.durable;
+        }
+    }
+
+    public boolean isFailed() { return failure != null; }
+    public long getCommitCount() { return commits.get(); }
+    public long getRecordsWritten() { return recordsWritten.get(); }
+
+    public double getAverageGroupSize() {
+        long groups = commits.get();
+        return groups == 0 ? 0 : (double) recordsWritten.get() / groups;
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> group = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP - 1);
+                writeGroup(group);
+                group.forEach(write -> write.durable.complete(null));
+            } catch (IOException e) {
+                fail(group, e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(group, new InterruptedIOException("Journal writer interrupted"));
+                return;
+            }
+            group.clear();
+        }
+    }
+
+    // Stop accepting appends, then fail the group in hand and everything still queued
+    private void fail(List<PendingWrite> group, IOException cause) {
+        synchronized (appendLock) {
+            failure = cause;
+        }
+        queue.drainTo(group);
+        group.forEach(write -> write.durable.completeExceptionally(cause));
+    }
+
+    private void writeGroup(List<PendingWrite> group) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(group.size());
+        int size = 0;
+        for (PendingWrite write : group) {
+            byte[] payload = write.record.encode();
+            payloads.add(payload);
+            size += payload.length + 8;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        long groupStart = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false); // one flush for the whole group
+        } catch (IOException e) {
+            try {
+                channel.truncate(groupStart); // recovery must not find a partial group
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        commits.incrementAndGet();
+        recordsWritten.addAndGet(group.size());
+    }
+
+    // Read every intact record into records; stops at the first torn or corrupt one.
+    // Returns the byte length of the intact prefix.
+    static long readAll(Path file, List<JournalRecord> records) throws IOException {
+        long validLength = 0;
+        if (!Files.exists(file)) {
+            return validLength;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > 1 << 20) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                records.add(JournalRecord.decode(payload));
+                validLength += payload.length + 8;
+            }
+        }
+        return validLength;
+    }
+
+    // Waits for every accepted append to be written (or failed)
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            closed = true;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
+
+// JournaledLedger.java - Accounts whose every change is journaled before it is acknowledged
+// Changes are made in memory first so the minimum-balance checks stay atomic. If the
+// journal then fails, the change is undone before the caller (or a snapshot) can see
+// the failure, keeping memory in line with what recovery would rebuild.
+class JournaledLedger implements AutoCloseable {
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private final Path directory;
+    private final Map<String, ConcurrentBankAccount> accounts = new ConcurrentHashMap<>();
+    private final AtomicLong sequence;
+    private volatile BankJournal journal; // replaced only under the snapshot write lock
+    // Taking a sequence number and queuing the record happen together under this lock,
+    // so the journal holds records in sequence order and an OPEN precedes every record
+    // that mentions its account
+    private final Object journalOrder = new Object();
+    // Operations share the read lock; snapshot takes the write lock for a consistent cut
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    private JournaledLedger(Path directory, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.sequence = new AtomicLong(lastSequence);
+        this.journal = new BankJournal(directory.resolve(JOURNAL_FILE));
+    }
+
+    // Rebuild balances from the latest snapshot plus newer journal records
+    public static JournaledLedger open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, long[]> balances = new LinkedHashMap<>(); // {balance, minimum}
+        Map<String, String> holders = new HashMap<>();
+        long snapshotSequence = readSnapshot(directory.resolve(SNAPSHOT_FILE), balances, holders);
+
+        // Segments left by a snapshot that did not finish come first, oldest first
+        List<JournalRecord> records = new ArrayList<>();
+        for (Path segment : listSegments(directory)) {
+            BankJournal.readAll(segment, records);
+        }
+        Path journalFile = directory.resolve(JOURNAL_FILE);
+        long validLength = BankJournal.readAll(journalFile, records);
+        if (Files.exists(journalFile) && Files.size(journalFile) > validLength) {
+            // Drop a torn tail so new records are not appended after garbage
+            try (FileChannel file = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                file.truncate(validLength);
+            }
+        }
+
+        long lastSequence = snapshotSequence;
+        for (JournalRecord record : records) {
+            lastSequence = Math.max(lastSequence, record.getSequence());
+            if (record.getSequence() <= snapshotSequence) {
+                continue;
+            }
+            // Records were validated when first applied, so replay them as plain deltas
+            switch (record.getType()) {
+                case OPEN:
+                    balances.put(record.getAccount(), new long[] { record.getAmountCents(), record.getMinimumCents() });
+                    holders.put(record.getAccount(), record.getCounterparty());
+                    break;
+                case DEPOSIT:
+                    balances.get(record.getAccount())[0] += record.getAmountCents();
+                    break;
+                case WITHDRAW:
+                    balances.get(record.getAccount())[0] -= record.getAmountCents();
+                    break;
+                case TRANSFER:
+                    balances.get(record.getAccount())[0] -= record.getAmountCents();
+                    balances.get(record.getCounterparty())[0] += record.getAmountCents();
+                    break;
+            }
+        }
+
+        JournaledLedger ledger = new JournaledLedger(directory, lastSequence);
+        balances.forEach((number, values) -> ledger.accounts.put(number,
+            restoreAccount(number, holders.get(number), values[0], values[1])));
+        return ledger;
+    }
+
+    public ConcurrentBankAccount openAccount(String number, String holder, long initialCents, long minimumCents) {
+        snapshotLock.readLock().lock();
+        CompletableFuture<Void> durable;
+        ConcurrentBankAccount account;
+        try {
+            account = new ConcurrentBankAccount(number, holder, initialCents, minimumCents);
+            synchronized (journalOrder) {
+                // Visible to other operations only once its OPEN is queued ahead of them
+                if (accounts.putIfAbsent(number, account) != null) {
+                    throw new IllegalArgumentException("Account already exists: " + number);
+                }
+                durable = journalOrUndo(next -> new JournalRecord(next,
+                    JournalRecord.Type.OPEN, number, holder, initialCents, minimumCents),
+                    () -> accounts.remove(number, account));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        durable.join();
+        return account;
+    }
+
+    public boolean deposit(String number, long amountCents) {
+        return apply(JournalRecord.Type.DEPOSIT, number, "", amountCents);
+    }
+
+    public boolean withdraw(String number, long amountCents) {
+        return apply(JournalRecord.Type.WITHDRAW, number, "", amountCents);
+    }
+
+    public boolean transfer(String fromNumber, String toNumber, long amountCents) {
+        return apply(JournalRecord.Type.TRANSFER, fromNumber, toNumber, amountCents);
+    }
+
+    public ConcurrentBankAccount getAccount(String number) {
+        return accounts.get(number);
+    }
+
+    public BankJournal getJournal() {
+        return journal;
+    }
+
+    // Apply in memory, journal, and return only after the journal group is on disk.
+    // A journal failure undoes the change and surfaces from join() as a CompletionException.
+    private boolean apply(JournalRecord.Type type, String number, String counterparty, long amountCents) {
+        ConcurrentBankAccount account = accounts.get(number);
+        if (account == null) {
+            return false;
+        }
+        CompletableFuture<Void> durable;
+        snapshotLock.readLock().lock();
+        try {
+            boolean applied;
+            Runnable undo;
+            switch (type) {
+                case DEPOSIT:
+                    applied = account.deposit(amountCents);
+                    undo = () -> account.adjust(-amountCents);
+                    break;
+                case WITHDRAW:
+                    applied = account.withdraw(amountCents);
+                    undo = () -> account.adjust(amountCents);
+                    break;
+                default:
+                    ConcurrentBankAccount target = accounts.get(counterparty);
+                    applied = target != null && TransferEngine.apply(
+                        new Transfer(account, target, amountCents)) == TransferStatus.COMPLETED;
+                    undo = () -> {
+                        account.adjust(amountCents);
+                        target.adjust(-amountCents);
+                    };
+            }
+            if (!applied) {
+                return false;
+            }
+            durable = journalOrUndo(next -> new JournalRecord(next,
+                type, number, counterparty, amountCents, 0), undo);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        durable.join();
+        return true;
+    }
+
+    // Called under the read lock. The undo runs on the writer thread as the failure is
+    // reported, so it is done before the journal's close() returns.
+    private CompletableFuture<Void> journalOrUndo(LongFunction<JournalRecord> recordFor, Runnable undo) {
+        CompletableFuture<Void> durable;
+        try {
+            synchronized (journalOrder) {
+                durable = journal.append(recordFor.apply(sequence.incrementAndGet()));
+            }
+        } catch (IllegalStateException e) {
+            undo.run();
+            throw e;
+        }
+        return durable.whenComplete((ignored, error) -> {
+            if (error != null) {
+                undo.run();
+            }
+        });
+    }
+
+    // Write all balances atomically and drop the journal records it covers.
+    // Operations are paused while the journal is rotated and balances are copied,
+    // not while the snapshot file is written.
+    public void snapshot() throws IOException {
+        List<ConcurrentBankAccount> snapshotAccounts;
+        long[] balances;
+        long snapshotSequence;
+        snapshotLock.writeLock().lock();
+        try {
+            // Closing waits for in-flight groups, so failed ones are already undone
+            journal.close();
+            snapshotSequence = sequence.get();
+            snapshotAccounts = new ArrayList<>(accounts.values());
+            balances = new long[snapshotAccounts.size()];
+            for (int i = 0; i < balances.length; i++) {
+                balances[i] = snapshotAccounts.get(i).getBalanceCents();
+            }
+            Path segment = directory.resolve(SEGMENT_PREFIX + snapshotSequence + ".log");
+            if (!Files.exists(segment)) { // otherwise nothing was journaled since that rotation
+                Files.move(directory.resolve(JOURNAL_FILE), segment, StandardCopyOption.ATOMIC_MOVE);
+            }
+            journal = new BankJournal(directory.resolve(JOURNAL_FILE));
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        writeSnapshot(snapshotAccounts, balances, snapshotSequence);
+        for (Path segment : listSegments(directory)) {
+            if (segmentSequence(segment) <= snapshotSequence) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    private synchronized void writeSnapshot(List<ConcurrentBankAccount> snapshotAccounts, long[] balances,
+                                            long snapshotSequence) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeLong(snapshotSequence);
+            out.writeInt(balances.length);
+            int i = 0;
+            for (ConcurrentBankAccount account : snapshotAccounts) {
+                out.writeUTF(account.getAccountNumber());
+                out.writeUTF(account.getAccountHolder());
+                out.writeLong(balances[i++]);
+                out.writeLong(account.getMinimumBalanceCents());
+            }
+        }
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long readSnapshot(Path file, Map<String, long[]> balances, Map<String, String> holders)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long snapshotSequence = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String number = in.readUTF();
+                holders.put(number, in.readUTF());
+                balances.put(number, new long[] { in.readLong(), in.readLong() });
+            }
+            return snapshotSequence;
+        }
+    }
+
+    // Rotated journal segments, oldest first
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*.log")) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparingLong(JournaledLedger::segmentSequence));
+        return segments;
+    }
+
+    private static long segmentSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - ".log".length()));
+    }
+
+    // A rolled-back update can leave a balance below its minimum; restore it as recorded
+    private static ConcurrentBankAccount restoreAccount(String number, String holder, long balanceCents,
+                                                       long minimumCents) {
+        ConcurrentBankAccount account = new ConcurrentBankAccount(number, holder,
+            Math.max(balanceCents, minimumCents), minimumCents);
+        account.adjust(balanceCents - Math.max(balanceCents, minimumCents));
+        return account;
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// ConcurrentBankAccount.java - Thread-safe account without locks
+// The balance is a whole number of cents held in an AtomicLong. Every update is a
+// compare-and-set loop, so the minimum-balance check and the write happen atomically
+// and no concurrent deposit or withdrawal is ever lost.
+public class ConcurrentBankAccount {
+    private final String accountNumber;
+    private final String accountHolder;
+    private final AtomicLong balanceCents;
+    private final long minimumBalanceCents;
+
+    public ConcurrentBankAccount(String accountNumber, String accountHolder, double initialBalance) {
+        this(accountNumber, accountHolder, toCents(initialBalance), toCents(BankAccount.getMinimumBalance()));
+    }
+
+    public ConcurrentBankAccount(String accountNumber, String accountHolder,
+                                 long initialBalanceCents, long minimumBalanceCents) {
+        if (initialBalanceCents < minimumBalanceCents) {
+            throw new IllegalArgumentException("Initial balance must be at least $" + formatCents(minimumBalanceCents));
+        }
+        this.accountNumber = accountNumber;
+        this.accountHolder = accountHolder;
+        this.balanceCents = new AtomicLong(initialBalanceCents);
+        this.minimumBalanceCents = minimumBalanceCents;
+    }
+
+    public boolean deposit(long amountCents) {
+        if (amountCents <= 0) {
+            return false;
+        }
+        while (true) {
+            long current = balanceCents.get();
+            long updated;
+            try {
+                updated = Math.addExact(current, amountCents);
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            if (balanceCents.compareAndSet(current, updated)) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Fails without changing the balance if it would drop below the minimum
+    public boolean withdraw(long amountCents) {
+        if (amountCents <= 0) {
+            return false;
+        }
+        while (true) {
+            long current = balanceCents.get();
+            long updated = current - amountCents;
+            if (updated < minimumBalanceCents) {
+                return false;
+            }
+            if (balanceCents.compareAndSet(current, updated)) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Unchecked change used to undo an update whose journal write failed; the result
+    // may sit below the minimum, matching what recovery from the journal would give
+    void adjust(long deltaCents) {
+        balanceCents.addAndGet(deltaCents);
+    }
+
+    public boolean deposit(double amount) {
+        return deposit(toCents(amount));
+    }
+
+    public boolean withdraw(double amount) {
+        return withdraw(toCents(amount));
+    }
+
+    public long getBalanceCents() {
+        return balanceCents.get();
+    }
+
+    public double getBalance() {
+        return balanceCents.get() / 100.0;
+    }
+
+    public long getMinimumBalanceCents() {
+        return minimumBalanceCents;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getAccountHolder() {
+        return accountHolder;
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static String formatCents(long cents) {
+        return String.format("%s%d.%02d", cents < 0 ? "-" : "", Math.abs(cents / 100), Math.abs(cents % 100));
+    }
+
+    @Override
+    public String toString() {
+        return accountNumber + " (" + accountHolder + "): $" + formatCents(balanceCents.get());
+    }
+}
@@ -0,0 +1,462 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Connection Pool - Bounded pool of database connections (replaces sharing one singleton)
+// Idle connections sit in a lock-free deque; a Semaphore caps how many are borrowed at
+// once, so a caller that finds an idle connection never takes a lock. Callers wait up
+// to a timeout when the pool is exhausted. A background task trims idle connections
+// down to the minimum and, if a leak threshold is set, reports connections held longer
+// than it. A borrow only records its thread; that thread's stack is captured when a
+// leak is reported, so detection costs nothing on the borrow path.
+
+// DatabaseBackend.java - Where physical connections come from
+interface DatabaseBackend {
+    BackendSession open(String url) throws Exception;
+}
+
+// BackendSession.java - One physical connection
+interface BackendSession {
+    String execute(String sql) throws Exception;
+    boolean isValid();
+    void close();
+}
+
+// FakeDatabaseBackend.java - In-process backend for tests and demos
+class FakeDatabaseBackend implements DatabaseBackend {
+    private final long connectDelayMillis;
+    private final long queryDelayMillis;
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final AtomicLong sessionsOpened = new AtomicLong();
+    private final AtomicLong statementsExecuted = new AtomicLong();
+    private volatile boolean available = true;
+
+    public FakeDatabaseBackend() {
+        this(0, 0);
+    }
+
+    public FakeDatabaseBackend(long connectDelayMillis, long queryDelayMillis) {
+        this.connectDelayMillis = connectDelayMillis;
+        this.queryDelayMillis = queryDelayMillis;
+    }
+
+    @Override
+    public BackendSession open(String url) throws Exception {
+        if (!available) {
+            throw new IllegalStateException("Database unavailable: " + url);
+        }
+        pause(connectDelayMillis);
+        openSessions.incrementAndGet();
+        long id = sessionsOpened.incrementAndGet();
+        return new BackendSession() {
+            private volatile boolean open = true;
+
+            @Override
+            public String execute(String sql) throws Exception {
+                if (!open || !available) {
+                    throw new IllegalStateException("Session " + id + " is not connected");
+                }
+                pause(queryDelayMillis);
+                statementsExecuted.incrementAndGet();
+                return "session " + id + ": OK " + sql;
+            }
+
+            @Override
+            public boolean isValid() {
+                return open && available;
+            }
+
+            @Override
+            public void close() {
+                if (open) {
+                    open = false;
+                    openSessions.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    // Simulate an outage: new opens fail and existing sessions become invalid
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public int getOpenSessions() { return openSessions.get(); }
+    public long getSessionsOpened() { return sessionsOpened.get(); }
+    public long getStatementsExecuted() { return statementsExecuted.get(); }
+
+    private static void pause(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
+
+// PhysicalConnection.java - One backend session owned by the pool
+class PhysicalConnection {
+    private final BackendSession session;
+    private volatile long idleSinceNanos;
+
+    PhysicalConnection(BackendSession session) {
+        this.session = session;
+        this.idleSinceNanos = System.nanoTime();
+    }
+
+    void markIdle() {
+        idleSinceNanos = System.nanoTime();
+    }
+
+    long getIdleSinceNanos() { return idleSinceNanos; }
+    BackendSession getSession() { return session; }
+}
+
+// PooledConnection.java - Borrowed handle; close() gives the connection back to the pool
+// Every borrow gets a new handle, so a stale holder can never touch the next borrower's
+// connection: once closed, a handle stays closed.
+class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final PhysicalConnection physical;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private final long borrowedAtNanos;
+    private final Thread borrower;
+    private volatile boolean leakReported;
+
+    PooledConnection(ConnectionPool pool, PhysicalConnection physical) {
+        this.pool = pool;
+        this.physical = physical;
+        this.borrowedAtNanos = System.nanoTime();
+        this.borrower = Thread.currentThread();
+    }
+
+    public String execute(String sql) throws Exception {
+        if (!open.get()) {
+            throw new IllegalStateException("Connection has been returned to the pool");
+        }
+        return physical.getSession().execute(sql);
+    }
+
+    // Safe to call more than once; only the first call returns the connection
+    @Override
+    public void close() {
+        if (open.compareAndSet(true, false)) {
+            pool.release(this);
+        }
+    }
+
+    boolean isOpen() { return open.get(); }
+    long getBorrowedAtNanos() { return borrowedAtNanos; }
+    Thread getBorrower() { return borrower; }
+    boolean isLeakReported() { return leakReported; }
+    void setLeakReported() { leakReported = true; }
+    PhysicalConnection getPhysical() { return physical; }
+}
+
+// PoolMetrics.java - Wait time, hold time and lifecycle counters
+class PoolMetrics {
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong totalHoldNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    void recordAcquire(long waitNanos) {
+        acquisitions.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void recordTimeout() { timeouts.incrementAndGet(); }
+
+    void recordRelease(long holdNanos) {
+        releases.incrementAndGet();
+        totalHoldNanos.addAndGet(holdNanos);
+    }
+
+    void recordCreated() { created.incrementAndGet(); }
+    void recordDestroyed() { destroyed.incrementAndGet(); }
+    void recordLeak() { leaksDetected.incrementAndGet(); }
+
+    public long getAcquisitions() { return acquisitions.get(); }
+    public long getTimeouts() { return timeouts.get(); }
+    public long getCreated() { return created.get(); }
+    public long getDestroyed() { return destroyed.get(); }
+    public long getLeaksDetected() { return leaksDetected.get(); }
+
+    public double getAverageWaitMillis() {
+        long count = acquisitions.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageHoldMillis() {
+        long count = releases.get();
+        return count == 0 ? 0 : totalHoldNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("acquired=%d, timeouts=%d, avgWait=%.2fms, maxWait=%.2fms, avgHold=%.2fms, "
+                + "created=%d, destroyed=%d, leaks=%d",
+            getAcquisitions(), getTimeouts(), getAverageWaitMillis(), getMaxWaitMillis(),
+            getAverageHoldMillis(), getCreated(), getDestroyed(), getLeaksDetected());
+    }
+}
+
+// ConnectionPool.java
+class ConnectionPool implements AutoCloseable {
+    private static final long MAINTENANCE_INTERVAL_MILLIS = 1000;
+
+    private final DatabaseBackend backend;
+    private final String url;
+    private final int minSize;
+    private final int maxSize;
+    private final Duration defaultTimeout;
+    private final Duration idleTimeout;
+    private final Duration leakThreshold;
+
+    private final ConcurrentLinkedDeque<PhysicalConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final PoolMetrics metrics = new PoolMetrics();
+    // Borrowers that hold a permit but found no idle connection wait here; the lock is
+    // only taken when someone is waiting, so releases stay lock-free otherwise
+    private final ReentrantLock availableLock = new ReentrantLock();
+    private final Condition available = availableLock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    public ConnectionPool(DatabaseBackend backend, String url, int minSize, int maxSize) {
+        this(backend, url, minSize, maxSize, Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ZERO);
+    }
+
+    // A zero leakThreshold turns leak detection off
+    public ConnectionPool(DatabaseBackend backend, String url, int minSize, int maxSize,
+                          Duration defaultTimeout, Duration idleTimeout, Duration leakThreshold) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Require 0 <= minSize <= maxSize and maxSize >= 1");
+        }
+        this.backend = backend;
+        this.url = url;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.defaultTimeout = defaultTimeout;
+        this.idleTimeout = idleTimeout;
+        this.leakThreshold = leakThreshold;
+        this.permits = new Semaphore(maxSize, true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        fillToMinimum();
+        maintenance.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL_MILLIS,
+            MAINTENANCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public PooledConnection acquire() throws InterruptedException, TimeoutException {
+        return acquire(defaultTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public PooledConnection acquire(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        if (closed) {
+            throw new IllegalStateException("Pool is closed");
+        }
+        long start = System.nanoTime();
+        // tryAcquire() first: when a permit is free this is a single CAS, no queueing
+        if (!permits.tryAcquire() && !permits.tryAcquire(timeout, unit)) {
+            metrics.recordTimeout();
+            throw new TimeoutException("No connection available within " + unit.toMillis(timeout) + " ms ("
+                + inUse.size() + " of " + maxSize + " in use)");
+        }
+        try {
+            PooledConnection connection = new PooledConnection(this, takeOrCreate());
+            inUse.add(connection);
+            metrics.recordAcquire(System.nanoTime() - start);
+            return connection;
+        } catch (RuntimeException | InterruptedException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection connection) {
+        inUse.remove(connection);
+        metrics.recordRelease(System.nanoTime() - connection.getBorrowedAtNanos());
+        PhysicalConnection physical = connection.getPhysical();
+        if (closed || !physical.getSession().isValid()) {
+            destroy(physical);
+        } else {
+            physical.markIdle();
+            idle.offerFirst(physical); // most recently used first keeps hot connections hot
+            signalAvailable();
+        }
+        permits.release();
+    }
+
+    public int getIdleCount() { return idle.size(); }
+    public int getInUseCount() { return inUse.size(); }
+    public int getTotalCount() { return totalConnections.get(); }
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public PoolMetrics getMetrics() { return metrics; }
+
+    // Close idle connections; borrowed ones are closed as they come back
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        PhysicalConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            destroy(connection);
+        }
+    }
+
+    // Caller holds a permit, so at most maxSize connections are ever borrowed
+    private PhysicalConnection takeOrCreate() throws InterruptedException {
+        while (true) {
+            PhysicalConnection connection = idle.pollFirst();
+            if (connection != null) {
+                if (connection.getSession().isValid()) {
+                    return connection;
+                }
+                destroy(connection);
+                continue;
+            }
+            int total = totalConnections.get();
+            if (total < maxSize) {
+                if (totalConnections.compareAndSet(total, total + 1)) {
+                    return openConnection();
+                }
+            } else {
+                // Every connection exists but maintenance has one in hand (trimming or
+                // refilling); wait for it to come back or for its slot to free up
+                awaitAvailable();
+            }
+        }
+    }
+
+    private void awaitAvailable() throws InterruptedException {
+        waiters.incrementAndGet();
+        availableLock.lock();
+        try {
+            // Re-check under the lock: a signal sent before we got here is not lost
+            while (idle.isEmpty() && totalConnections.get() >= maxSize) {
+                available.await();
+            }
+        } finally {
+            availableLock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    // Call after offering an idle connection or freeing a connection slot
+    private void signalAvailable() {
+        if (waiters.get() > 0) {
+            availableLock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                availableLock.unlock();
+            }
+        }
+    }
+
+    // Slot in totalConnections must already be reserved
+    private PhysicalConnection openConnection() {
+        try {
+            PhysicalConnection connection = new PhysicalConnection(backend.open(url));
+            metrics.recordCreated();
+            return connection;
+        } catch (Exception e) {
+            totalConnections.decrementAndGet();
+            signalAvailable();
+            throw new IllegalStateException("Could not open connection to " + url, e);
+        }
+    }
+
+    private void destroy(PhysicalConnection connection) {
+        connection.getSession().close();
+        totalConnections.decrementAndGet();
+        metrics.recordDestroyed();
+        signalAvailable();
+    }
+
+    private void fillToMinimum() {
+        while (!closed) {
+            int total = totalConnections.get();
+            if (total >= minSize) {
+                return;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                idle.offerLast(openConnection());
+                signalAvailable();
+            }
+        }
+    }
+
+    private void maintain() {
+        try {
+            trimIdle();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            // Backend may be down; try again next round
+            System.out.println("⚠️ Connection pool maintenance failed: " + e.getMessage());
+        }
+    }
+
+    // Oldest idle connections sit at the tail; close them while above the minimum
+    private void trimIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        while (totalConnections.get() > minSize) {
+            PhysicalConnection oldest = idle.pollLast();
+            if (oldest == null) {
+                return;
+            }
+            if (oldest.getIdleSinceNanos() - cutoff > 0) {
+                idle.offerLast(oldest);
+                signalAvailable();
+                return;
+            }
+            destroy(oldest);
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThreshold.isZero()) {
+            return;
+        }
+        long cutoff = System.nanoTime() - leakThreshold.toNanos();
+        for (PooledConnection connection : inUse) {
+            if (connection.isOpen() && !connection.isLeakReported()
+                    && connection.getBorrowedAtNanos() - cutoff < 0) {
+                connection.setLeakReported();
+                metrics.recordLeak();
+                Thread borrower = connection.getBorrower();
+                System.out.println("⚠️ Possible connection leak: held for more than "
+                    + leakThreshold.toMillis() + " ms by thread " + borrower.getName());
+                // Where the borrower is now; usually the code still sitting on the connection
+                if (borrower.isAlive()) {
+                    for (StackTraceElement frame : borrower.getStackTrace()) {
+                        System.out.println("\tat " + frame);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.*;
+
+// Drawable Scene - Incremental redraw of only what changed
+// Every change made through the scene (add, move, recolor, remove) records the screen
+// area it affects. A frame merges those dirty regions, finds the nodes that overlap
+// each region through the spatial grid, and redraws just them, clipped to the region,
+// in paint order. All commands for a frame go into one reused StringBuilder, so
+// frame cost depends on how much changed, not on how big the scene is.
+// The scene cannot see changes made on a drawable itself: calling Colorable.setColor
+// directly leaves the old color on screen until invalidate() is called for it, so
+// change placed drawables through the scene (setColor, move) or invalidate afterwards.
+
+// SceneNode.java - One placed drawable
+class SceneNode {
+    private final Drawable drawable;
+    private final long paintOrder;
+    private double x;
+    private double y;
+    private boolean dirty; // its current bounds are already queued for the next frame
+
+    SceneNode(Drawable drawable, long paintOrder, double x, double y) {
+        this.drawable = drawable;
+        this.paintOrder = paintOrder;
+        this.x = x;
+        this.y = y;
+    }
+
+    public Drawable getDrawable() { return drawable; }
+    public long getPaintOrder() { return paintOrder; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public boolean isDirty() { return dirty; }
+
+    void moveTo(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    void setDirty(boolean dirty) { this.dirty = dirty; }
+}
+
+// SceneFrame.java - Output and statistics of one rendered frame
+class SceneFrame {
+    private final String commands;
+    private final int regions;
+    private final int nodesDrawn;
+
+    SceneFrame(String commands, int regions, int nodesDrawn) {
+        this.commands = commands;
+        this.regions = regions;
+        this.nodesDrawn = nodesDrawn;
+    }
+
+    public String getCommands() { return commands; }
+    public int getRegions() { return regions; }
+    public int getNodesDrawn() { return nodesDrawn; }
+
+    public boolean isEmpty() { return regions == 0; }
+
+    @Override
+    public String toString() {
+        return regions + " dirty regions, " + nodesDrawn + " draws";
+    }
+}
+
+// DrawableScene.java - Scene graph with dirty-region tracking
+// Not thread-safe; drive it from a single render thread.
+class DrawableScene {
+    // Beyond this many pending regions, merging pairwise costs more than it saves
+    private static final int MAX_MERGED_REGIONS = 64;
+
+    private final Map<Drawable, SceneNode> nodes = new IdentityHashMap<>();
+    private final SpatialGridIndex<Drawable> index;
+    private final List<BoundingBox> dirtyRegions = new ArrayList<>();
+    private final StringBuilder frameBuffer = new StringBuilder(4096);
+    private long nextPaintOrder;
+
+    public DrawableScene(double cellSize) {
+        this.index = new SpatialGridIndex<>(cellSize);
+    }
+
+    // Later additions paint on top of earlier ones
+    public SceneNode add(Drawable drawable, double x, double y) {
+        if (nodes.containsKey(drawable)) {
+            throw new IllegalArgumentException("Drawable is already in the scene");
+        }
+        SceneNode node = new SceneNode(drawable, nextPaintOrder++, x, y);
+        nodes.put(drawable, node);
+        index.insert(drawable, x, y);
+        markDirty(node, index.getBounds(drawable));
+        return node;
+    }
+
+    public boolean remove(Drawable drawable) {
+        SceneNode node = nodes.remove(drawable);
+        if (node == null) {
+            return false;
+        }
+        if (!node.isDirty()) {
+            dirtyRegions.add(index.getBounds(drawable));
+        }
+        index.remove(drawable);
+        return true;
+    }
+
+    // Geometry change: both the old and the new area need repainting
+    public void move(Drawable drawable, double x, double y) {
+        SceneNode node = requireNode(drawable);
+        if (!node.isDirty()) {
+            dirtyRegions.add(index.getBounds(drawable));
+        }
+        node.moveTo(x, y);
+        index.move(drawable, x, y);
+        node.setDirty(true);
+        dirtyRegions.add(index.getBounds(drawable));
+    }
+
+    public void setColor(Drawable drawable, String color) {
+        SceneNode node = requireNode(drawable);
+        Colorable colorable = (Colorable) drawable; // every permitted Drawable is Colorable
+        if (!color.equals(colorable.getColor())) {
+            colorable.setColor(color);
+            markDirty(node, index.getBounds(drawable));
+        }
+    }
+
+    // Required after changing a placed drawable directly rather than through the scene
+    public void invalidate(Drawable drawable) {
+        markDirty(requireNode(drawable), index.getBounds(drawable));
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public int getPendingRegionCount() {
+        return dirtyRegions.size();
+    }
+
+    // Repaint every dirty region and clear the dirty state
+    public SceneFrame renderFrame() {
+        if (dirtyRegions.isEmpty()) {
+            return new SceneFrame("", 0, 0);
+        }
+        frameBuffer.setLength(0);
+        if (dirtyRegions.size() >= nodes.size() / 2) {
+            // Most of the scene changed (e.g. the first frame): one full repaint is cheaper
+            dirtyRegions.clear();
+            return renderFullFrame();
+        }
+        List<BoundingBox> regions = mergeOverlapping(dirtyRegions);
+        dirtyRegions.clear();
+
+        int nodesDrawn = 0;
+        List<SceneNode> toDraw = new ArrayList<>();
+        for (BoundingBox region : regions) {
+            toDraw.clear();
+            for (Drawable drawable : index.queryWindow(region)) {
+                toDraw.add(nodes.get(drawable));
+            }
+            toDraw.sort(Comparator.comparingLong(SceneNode::getPaintOrder));
+
+            frameBuffer.append("clip ").append(region).append('\n');
+            frameBuffer.append("clear\n");
+            for (SceneNode node : toDraw) {
+                appendDrawCommand(node);
+                node.setDirty(false);
+                nodesDrawn++;
+            }
+        }
+        return new SceneFrame(frameBuffer.toString(), regions.size(), nodesDrawn);
+    }
+
+    private SceneFrame renderFullFrame() {
+        List<SceneNode> all = new ArrayList<>(nodes.values());
+        all.sort(Comparator.comparingLong(SceneNode::getPaintOrder));
+        frameBuffer.append("clear\n");
+        for (SceneNode node : all) {
+            appendDrawCommand(node);
+            node.setDirty(false);
+        }
+        return new SceneFrame(frameBuffer.toString(), 1, all.size());
+    }
+
+    // Repeated changes to a node within one frame queue its area only once
+    private void markDirty(SceneNode node, BoundingBox bounds) {
+        if (!node.isDirty()) {
+            node.setDirty(true);
+            dirtyRegions.add(bounds);
+        }
+    }
+
+    private void appendDrawCommand(SceneNode node) {
+        Drawable drawable = node.getDrawable();
+        frameBuffer.append("draw ");
+        if (drawable instanceof AdvancedCircle circle) {
+            frameBuffer.append("circle ").append(circle.getColor())
+                .append(" r=").append(circle.getRadius());
+        } else if (drawable instanceof AdvancedRectangle rectangle) {
+            frameBuffer.append("rectangle ").append(rectangle.getColor())
+                .append(' ').append(rectangle.getLength()).append('x').append(rectangle.getWidth());
+        } else if (drawable instanceof Triangle triangle) {
+            frameBuffer.append("triangle ").append(triangle.getColor()).append(" sides=")
+                .append(triangle.getSide1()).append(',').append(triangle.getSide2())
+                .append(',').append(triangle.getSide3());
+        }
+        frameBuffer.append(" at (").append(node.getX()).append(", ").append(node.getY()).append(")\n");
+    }
+
+    // Union overlapping boxes until none overlap, so no area is repainted twice
+    private static List<BoundingBox> mergeOverlapping(List<BoundingBox> pending) {
+        List<BoundingBox> merged = new ArrayList<>(pending);
+        if (merged.size() > MAX_MERGED_REGIONS) {
+            return merged;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < merged.size() && !changed; i++) {
+                for (int j = i + 1; j < merged.size(); j++) {
+                    BoundingBox a = merged.get(i);
+                    BoundingBox b = merged.get(j);
+                    if (a.intersects(b)) {
+                        merged.set(i, new BoundingBox(Math.min(a.getMinX(), b.getMinX()),
+                            Math.min(a.getMinY(), b.getMinY()),
+                            Math.max(a.getMaxX(), b.getMaxX()),
+                            Math.max(a.getMaxY(), b.getMaxY())));
+                        merged.remove(j);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    private SceneNode requireNode(Drawable drawable) {
+        SceneNode node = nodes.get(drawable);
+        if (node == null) {
+            throw new IllegalArgumentException("Drawable is not in the scene");
+        }
+        return node;
+    }
+}
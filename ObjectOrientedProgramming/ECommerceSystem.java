@@ -472,6 +472,14 @@ class ECommerceSystem {
     // Order processing
     public String processOrder(Customer customer, ShoppingCart cart, 
                               PaymentProcessor paymentProcessor, String paymentDetails) {
+        return processOrder(customer, cart, paymentProcessor, paymentDetails, null);
+    }
+    
+    // Retrying with the same idempotencyKey never charges twice when the processor
+    // supports keys (HedgedPaymentProcessor, IdempotentPaymentProcessor)
+    public String processOrder(Customer customer, ShoppingCart cart, 
+                              PaymentProcessor paymentProcessor, String paymentDetails,
+                              String idempotencyKey) {
         if (cart.isEmpty()) {
             System.out.println("❌ Cannot process empty cart");
             return null;
@@ -488,7 +496,7 @@ class ECommerceSystem {
         double totalAmount = cart.getTotalAmount();
         
         // Process payment
-        if (!paymentProcessor.processPayment(totalAmount, paymentDetails)) {
+        if (!pay(paymentProcessor, totalAmount, paymentDetails, idempotencyKey)) {
             System.out.println("❌ Payment failed");
             return null;
         }
@@ -513,6 +521,16 @@ class ECommerceSystem {
         return orderId;
     }
     
+    private boolean pay(PaymentProcessor processor, double amount, String details, String idempotencyKey) {
+        if (idempotencyKey != null && processor instanceof HedgedPaymentProcessor hedged) {
+            return hedged.charge(amount, details, idempotencyKey) != null;
+        }
+        if (idempotencyKey != null && processor instanceof IdempotentPaymentProcessor idempotent) {
+            return idempotent.charge(amount, details, idempotencyKey) != null;
+        }
+        return processor.processPayment(amount, details);
+    }
+    
     public void displayProducts() {
         System.out.println("\n🛍️ Available Products:");
         if (products.isEmpty()) {
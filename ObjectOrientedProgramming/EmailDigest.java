@@ -0,0 +1,256 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Email Digests - Batch EmailSubscriber notifications into one message per window
+
+// MailTransport.java - How a finished digest leaves the system (SMTP, file, memory...)
+interface MailTransport {
+    void send(String recipient, String subject, String body) throws IOException;
+}
+
+// SentMail.java - A message captured by InMemoryMailTransport
+class SentMail {
+    private final String recipient;
+    private final String subject;
+    private final String body;
+
+    public SentMail(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public String getRecipient() { return recipient; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+}
+
+// InMemoryMailTransport.java - Keeps sent mail in a list; stands in for SMTP in tests
+class InMemoryMailTransport implements MailTransport {
+    private final List<SentMail> outbox = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(String recipient, String subject, String body) {
+        outbox.add(new SentMail(recipient, subject, body));
+    }
+
+    public List<SentMail> getSentMail() {
+        return new ArrayList<>(outbox);
+    }
+}
+
+// FileMailTransport.java - Appends each digest to a text file
+class FileMailTransport implements MailTransport {
+    private final Path file;
+
+    public FileMailTransport(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void send(String recipient, String subject, String body) throws IOException {
+        String entry = "To: " + recipient + "\nDate: " + LocalDateTime.now()
+            + "\nSubject: " + subject + "\n\n" + body + "\n\n";
+        Files.writeString(file, entry, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
+
+// DigestMetrics.java - Delivery statistics for a DigestSender
+class DigestMetrics {
+    private final AtomicLong digestsSent = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    void recordDelivery(int batchSize, long latencyNanos) {
+        digestsSent.incrementAndGet();
+        messagesSent.addAndGet(batchSize);
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxBatchSize.accumulate(batchSize);
+        maxLatencyNanos.accumulate(latencyNanos);
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public long getDigestsSent() { return digestsSent.get(); }
+    public long getMessagesSent() { return messagesSent.get(); }
+    public long getFailures() { return failures.get(); }
+    public long getMaxBatchSize() { return maxBatchSize.get(); }
+
+    public double getAverageBatchSize() {
+        long digests = digestsSent.get();
+        return digests == 0 ? 0 : (double) messagesSent.get() / digests;
+    }
+
+    // Time from the first message entering a batch until its digest was handed to the transport
+    public double getAverageLatencyMillis() {
+        long digests = digestsSent.get();
+        return digests == 0 ? 0 : totalLatencyNanos.get() / 1_000_000.0 / digests;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("digests=%d messages=%d avgBatch=%.1f maxBatch=%d avgLatency=%.1fms maxLatency=%.1fms failures=%d",
+            getDigestsSent(), getMessagesSent(), getAverageBatchSize(), getMaxBatchSize(),
+            getAverageLatencyMillis(), getMaxLatencyMillis(), getFailures());
+    }
+}
+
+// DigestBatcher.java - Collects one recipient's messages until the window closes or the batch fills
+class DigestBatcher {
+    private final String recipient;
+    private final DigestSender sender;
+    private List<String> messages = new ArrayList<>();
+    private long firstMessageNanos;
+    private long batchNumber;
+    private ScheduledFuture<?> windowTimer;
+
+    DigestBatcher(String recipient, DigestSender sender) {
+        this.recipient = recipient;
+        this.sender = sender;
+    }
+
+    public synchronized void add(String message) {
+        if (!tryAdd(message)) {
+            throw new IllegalStateException("Digest sender for " + recipient + " is closed");
+        }
+    }
+
+    // Same as add, but returns false instead of throwing once the sender is closed
+    public synchronized boolean tryAdd(String message) {
+        if (sender.isClosed()) {
+            return false;
+        }
+        if (messages.isEmpty()) {
+            firstMessageNanos = System.nanoTime();
+            long batch = ++batchNumber;
+            windowTimer = sender.schedule(() -> flushBatch(batch));
+        }
+        messages.add(message);
+        if (messages.size() >= sender.getMaxBatchSize()) {
+            flush();
+        }
+        return true;
+    }
+
+    public synchronized void flush() {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (windowTimer != null) {
+            windowTimer.cancel(false);
+            windowTimer = null;
+        }
+        List<String> batch = messages;
+        messages = new ArrayList<>();
+        sender.deliver(recipient, batch, firstMessageNanos);
+    }
+
+    // Window timer callback; ignored if that batch was already flushed by size
+    private synchronized void flushBatch(long batch) {
+        if (batch == batchNumber) {
+            flush();
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return messages.size();
+    }
+}
+
+// DigestSender.java - Shared worker pool that turns batches into digests
+class DigestSender implements AutoCloseable {
+    private final MailTransport transport;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledThreadPoolExecutor pool;
+    private final List<DigestBatcher> batchers = new CopyOnWriteArrayList<>();
+    private final DigestMetrics metrics = new DigestMetrics();
+    private volatile boolean closed;
+
+    public DigestSender(MailTransport transport, Duration window, int maxBatchSize, int threads) {
+        if (maxBatchSize <= 0 || threads <= 0 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Invalid digest settings");
+        }
+        this.transport = transport;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.pool = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "digest-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Batches flushed by size cancel their window timer; drop it from the queue right away
+        pool.setRemoveOnCancelPolicy(true);
+    }
+
+    public DigestBatcher newBatcher(String recipient) {
+        DigestBatcher batcher = new DigestBatcher(recipient, this);
+        batchers.add(batcher);
+        return batcher;
+    }
+
+    public void removeBatcher(DigestBatcher batcher) {
+        batcher.flush();
+        batchers.remove(batcher);
+    }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public DigestMetrics getMetrics() { return metrics; }
+    public boolean isClosed() { return closed; }
+
+    ScheduledFuture<?> schedule(Runnable windowExpiry) {
+        return pool.schedule(windowExpiry, window.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void deliver(String recipient, List<String> batch, long firstMessageNanos) {
+        pool.execute(() -> {
+            StringBuilder body = new StringBuilder();
+            body.append("You have ").append(batch.size()).append(" new update(s):\n");
+            for (String message : batch) {
+                body.append("• ").append(message).append('\n');
+            }
+            try {
+                transport.send(recipient, "Digest: " + batch.size() + " update(s)", body.toString());
+                metrics.recordDelivery(batch.size(), System.nanoTime() - firstMessageNanos);
+            } catch (IOException | RuntimeException e) {
+                metrics.recordFailure();
+                System.out.println("❌ Digest to " + recipient + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    // Refuse new messages, flush every open batch, then wait for pending deliveries.
+    // An interrupt stops the wait early and is passed on to the caller's thread.
+    @Override
+    public void close() {
+        closed = true; // batchers check this under their own lock, so flush sees every add
+        batchers.forEach(DigestBatcher::flush);
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.out.println("⚠️ Digest sender closed with deliveries still pending");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// End-of-Day Processing - Nightly accrual, fees and checks over millions of accounts
+// Balances live in primitive arrays (one slot per account) instead of objects, and
+// the account range is split with fork/join so every core works on its own slice.
+
+// AccountBatch.java - Column-oriented account data
+// The batch works on copies of the balances; applyTo writes the changes back to the
+// accounts once the run is over.
+class AccountBatch {
+    private String[] accountNumbers;
+    private long[] balanceCents;
+    private long[] openingCents; // balances as of the last add or applyTo
+    private long[] minimumCents;
+    private int size;
+
+    public AccountBatch(int initialCapacity) {
+        accountNumbers = new String[initialCapacity];
+        balanceCents = new long[initialCapacity];
+        openingCents = new long[initialCapacity];
+        minimumCents = new long[initialCapacity];
+    }
+
+    public static AccountBatch of(Collection<ConcurrentBankAccount> accounts) {
+        AccountBatch batch = new AccountBatch(Math.max(1, accounts.size()));
+        for (ConcurrentBankAccount account : accounts) {
+            batch.add(account.getAccountNumber(), account.getBalanceCents(), account.getMinimumBalanceCents());
+        }
+        return batch;
+    }
+
+    public void add(String accountNumber, long balance, long minimum) {
+        if (size == balanceCents.length) {
+            int capacity = size * 2;
+            accountNumbers = Arrays.copyOf(accountNumbers, capacity);
+            balanceCents = Arrays.copyOf(balanceCents, capacity);
+            openingCents = Arrays.copyOf(openingCents, capacity);
+            minimumCents = Arrays.copyOf(minimumCents, capacity);
+        }
+        accountNumbers[size] = accountNumber;
+        balanceCents[size] = balance;
+        openingCents[size] = balance;
+        minimumCents[size] = minimum;
+        size++;
+    }
+
+    // Add each account's end-of-day change (interest, fees...) to its live balance.
+    // Only the difference is applied, so deposits and withdrawals made while the batch
+    // was processed are kept. Accounts not in the batch are skipped; returns how many
+    // balances changed.
+    public int applyTo(Collection<ConcurrentBankAccount> accounts) {
+        Map<String, Integer> indexes = null;
+        int position = 0;
+        int changed = 0;
+        for (ConcurrentBankAccount account : accounts) {
+            String number = account.getAccountNumber();
+            int index = position++;
+            // Accounts usually come back in the order of(...) read them
+            if (index >= size || !accountNumbers[index].equals(number)) {
+                if (indexes == null) {
+                    indexes = new HashMap<>(size * 2);
+                    for (int i = 0; i < size; i++) {
+                        indexes.put(accountNumbers[i], i);
+                    }
+                }
+                Integer found = indexes.get(number);
+                if (found == null) {
+                    continue;
+                }
+                index = found;
+            }
+            long delta = balanceCents[index] - openingCents[index];
+            if (delta != 0) {
+                account.adjust(delta);
+                openingCents[index] = balanceCents[index];
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    public int size() { return size; }
+    public String getAccountNumber(int index) { return accountNumbers[index]; }
+
+    // Direct array access for rules; only indexes below size() are meaningful
+    public long[] balances() { return balanceCents; }
+    public long[] minimums() { return minimumCents; }
+}
+
+// AccountException.java - One entry in the end-of-day exceptions report
+class AccountException {
+    private final String accountNumber;
+    private final String rule;
+    private final String message;
+
+    public AccountException(String accountNumber, String rule, String message) {
+        this.accountNumber = accountNumber;
+        this.rule = rule;
+        this.message = message;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public String getRule() { return rule; }
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        return accountNumber + " [" + rule + "] " + message;
+    }
+}
+
+// EndOfDayRule.java - Plug-in step applied to a contiguous slice of accounts
+interface EndOfDayRule {
+    String getName();
+    void apply(AccountBatch batch, int from, int to, Collection<AccountException> exceptions);
+}
+
+// InterestAccrualRule.java - Adds one day of interest at an annual rate
+class InterestAccrualRule implements EndOfDayRule {
+    private final double dailyRate;
+
+    public InterestAccrualRule(double annualRate) {
+        this.dailyRate = annualRate / 365.0;
+    }
+
+    @Override
+    public String getName() { return "Interest"; }
+
+    @Override
+    public void apply(AccountBatch batch, int from, int to, Collection<AccountException> exceptions) {
+        long[] balances = batch.balances();
+        for (int i = from; i < to; i++) {
+            if (balances[i] > 0) {
+                balances[i] += Math.round(balances[i] * dailyRate);
+            }
+        }
+    }
+}
+
+// MaintenanceFeeRule.java - Charges a flat fee to accounts below a waiver threshold
+class MaintenanceFeeRule implements EndOfDayRule {
+    private final long feeCents;
+    private final long waiverThresholdCents;
+
+    public MaintenanceFeeRule(long feeCents, long waiverThresholdCents) {
+        this.feeCents = feeCents;
+        this.waiverThresholdCents = waiverThresholdCents;
+    }
+
+    @Override
+    public String getName() { return "Fee"; }
+
+    @Override
+    public void apply(AccountBatch batch, int from, int to, Collection<AccountException> exceptions) {
+        long[] balances = batch.balances();
+        for (int i = from; i < to; i++) {
+            if (balances[i] < waiverThresholdCents) {
+                balances[i] -= feeCents;
+            }
+        }
+    }
+}
+
+// MinimumBalanceRule.java - Reports accounts below their minimum balance
+class MinimumBalanceRule implements EndOfDayRule {
+    @Override
+    public String getName() { return "MinimumBalance"; }
+
+    @Override
+    public void apply(AccountBatch batch, int from, int to, Collection<AccountException> exceptions) {
+        long[] balances = batch.balances();
+        long[] minimums = batch.minimums();
+        for (int i = from; i < to; i++) {
+            if (balances[i] < minimums[i]) {
+                exceptions.add(new AccountException(batch.getAccountNumber(i), getName(),
+                    "balance $" + ConcurrentBankAccount.formatCents(balances[i])
+                    + " below minimum $" + ConcurrentBankAccount.formatCents(minimums[i])));
+            }
+        }
+    }
+}
+
+// EndOfDayReport.java
+class EndOfDayReport {
+    private final int accountsProcessed;
+    private final List<AccountException> exceptions;
+    private final long elapsedMillis;
+
+    public EndOfDayReport(int accountsProcessed, List<AccountException> exceptions, long elapsedMillis) {
+        this.accountsProcessed = accountsProcessed;
+        this.exceptions = exceptions;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getAccountsProcessed() { return accountsProcessed; }
+    public List<AccountException> getExceptions() { return exceptions; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public void display() {
+        System.out.println("\n🌙 End-of-Day Report:");
+        System.out.println("Accounts processed: " + accountsProcessed + " in " + elapsedMillis + " ms");
+        System.out.println("Exceptions: " + exceptions.size());
+        exceptions.stream().limit(20).forEach(exception -> System.out.println("• " + exception));
+    }
+}
+
+// EndOfDayProcessor.java - Runs every rule over every account with fork/join
+class EndOfDayProcessor {
+    private static final int SLICE_SIZE = 16_384;
+
+    private final List<EndOfDayRule> rules = new ArrayList<>();
+    private final ForkJoinPool pool;
+
+    public EndOfDayProcessor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public EndOfDayProcessor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Rules run in the order they are added
+    public EndOfDayProcessor addRule(EndOfDayRule rule) {
+        rules.add(rule);
+        return this;
+    }
+
+    public EndOfDayReport run(AccountBatch batch) {
+        long start = System.nanoTime();
+        ConcurrentLinkedQueue<AccountException> exceptions = new ConcurrentLinkedQueue<>();
+        pool.invoke(new SliceTask(batch, 0, batch.size(), exceptions));
+
+        List<AccountException> sorted = new ArrayList<>(exceptions);
+        sorted.sort(Comparator.comparing(AccountException::getAccountNumber));
+        return new EndOfDayReport(batch.size(), sorted, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private class SliceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AccountBatch batch;
+        private final int from;
+        private final int to;
+        private final Collection<AccountException> exceptions;
+
+        SliceTask(AccountBatch batch, int from, int to, Collection<AccountException> exceptions) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.exceptions = exceptions;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE_SIZE) {
+                // All rules over one cache-sized slice before moving on
+                for (EndOfDayRule rule : rules) {
+                    rule.apply(batch, from, to, exceptions);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SliceTask(batch, from, middle, exceptions),
+                new SliceTask(batch, middle, to, exceptions));
+        }
+    }
+
+    // Self-check: interest and fees computed on the batch reach the accounts, and a
+    // deposit made during the run survives the write-back
+    public static void main(String[] args) {
+        List<ConcurrentBankAccount> accounts = List.of(
+            new ConcurrentBankAccount("A-1", "Ann", 1_000_000, 0),
+            new ConcurrentBankAccount("A-2", "Bob", 50_000, 0),
+            new ConcurrentBankAccount("A-3", "Cy", 2_000, 0));
+        AccountBatch batch = AccountBatch.of(accounts);
+        new EndOfDayProcessor()
+            .addRule(new InterestAccrualRule(0.0365))
+            .addRule(new MaintenanceFeeRule(500, 100_000))
+            .run(batch);
+        accounts.get(1).deposit(10_000);
+
+        List<ConcurrentBankAccount> reordered = List.of(accounts.get(2), accounts.get(0), accounts.get(1));
+        int changed = batch.applyTo(reordered);
+        batch.applyTo(reordered); // nothing left to apply the second time
+        long[] expected = {1_000_000 + 100, 50_000 + 5 - 500 + 10_000, 2_000 - 500};
+        boolean ok = changed == 3;
+        for (int i = 0; i < expected.length; i++) {
+            ok &= accounts.get(i).getBalanceCents() == expected[i];
+        }
+        System.out.println((ok ? "✅" : "❌") + " End-of-day changes written back: " + accounts);
+    }
+}
@@ -0,0 +1,748 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Expression Compiler - Formulas compiled once, evaluated many times
+// A formula such as "3*x*x + 2*x*y - max(y, 1)" is parsed into a small tree, then
+// turned into a tree of lambdas specialised for int, long or double. Sub-expressions
+// without variables are folded to constants while compiling, and trivial operations
+// (x*1, x/1, x-0, and x+0 for integers) disappear. Variables are numbered in order of
+// first appearance and read from an array the caller reuses, so evaluation allocates
+// nothing. Compiled expressions are cached by their source text.
+//
+// Grammar: + - * / % ^ (power, right-associative), unary minus, parentheses,
+// abs(x), min(a, b), max(a, b), sqrt(x). int and long use Java integer arithmetic.
+
+// IntFormula.java
+@FunctionalInterface
+interface IntFormula {
+    int evaluate(int[] values);
+}
+
+// LongFormula.java
+@FunctionalInterface
+interface LongFormula {
+    long evaluate(long[] values);
+}
+
+// DoubleFormula.java
+@FunctionalInterface
+interface DoubleFormula {
+    double evaluate(double[] values);
+}
+
+// ExprNode.java - Parsed expression tree
+abstract class ExprNode {
+    abstract boolean isConstant();
+
+    // Plain tree walk; the compiled formulas are the fast path
+    abstract double interpret(double[] values);
+}
+
+class NumberNode extends ExprNode {
+    final String text;
+    final double value;
+
+    NumberNode(String text) {
+        this.text = text;
+        this.value = Double.parseDouble(text);
+    }
+
+    boolean isInteger() {
+        return text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0;
+    }
+
+    @Override boolean isConstant() { return true; }
+    @Override double interpret(double[] values) { return value; }
+}
+
+class VariableNode extends ExprNode {
+    final String name;
+    final int index;
+
+    VariableNode(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    @Override boolean isConstant() { return false; }
+    @Override double interpret(double[] values) { return values[index]; }
+}
+
+class NegateNode extends ExprNode {
+    final ExprNode operand;
+
+    NegateNode(ExprNode operand) {
+        this.operand = operand;
+    }
+
+    @Override boolean isConstant() { return operand.isConstant(); }
+    @Override double interpret(double[] values) { return -operand.interpret(values); }
+}
+
+class BinaryNode extends ExprNode {
+    final char operator;
+    final ExprNode left;
+    final ExprNode right;
+
+    BinaryNode(char operator, ExprNode left, ExprNode right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override boolean isConstant() { return left.isConstant() && right.isConstant(); }
+
+    @Override
+    double interpret(double[] values) {
+        double a = left.interpret(values);
+        double b = right.interpret(values);
+        switch (operator) {
+            case '+': return a + b;
+            case '-': return a - b;
+            case '*': return a * b;
+            case '/': return a / b;
+            case '%': return a % b;
+            default: return Math.pow(a, b);
+        }
+    }
+}
+
+class CallNode extends ExprNode {
+    final String function;
+    final ExprNode[] arguments;
+
+    CallNode(String function, ExprNode[] arguments) {
+        this.function = function;
+        this.arguments = arguments;
+    }
+
+    @Override
+    boolean isConstant() {
+        for (ExprNode argument : arguments) {
+            if (!argument.isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    double interpret(double[] values) {
+        double a = arguments[0].interpret(values);
+        switch (function) {
+            case "abs": return Math.abs(a);
+            case "sqrt": return Math.sqrt(a);
+            case "min": return Math.min(a, arguments[1].interpret(values));
+            default: return Math.max(a, arguments[1].interpret(values));
+        }
+    }
+}
+
+// ExpressionParser.java - Recursive descent, one method per precedence level
+class ExpressionParser {
+    private static final Map<String, Integer> FUNCTIONS = Map.of("abs", 1, "sqrt", 1, "min", 2, "max", 2);
+
+    private final String source;
+    private final Map<String, Integer> variables = new LinkedHashMap<>();
+    private int pos;
+
+    ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    ExprNode parse() {
+        ExprNode node = parseSum();
+        skipSpaces();
+        if (pos < source.length()) {
+            throw error("Unexpected '" + source.charAt(pos) + "'");
+        }
+        return node;
+    }
+
+    List<String> getVariables() {
+        return new ArrayList<>(variables.keySet());
+    }
+
+    private ExprNode parseSum() {
+        ExprNode node = parseProduct();
+        while (true) {
+            if (accept('+')) {
+                node = new BinaryNode('+', node, parseProduct());
+            } else if (accept('-')) {
+                node = new BinaryNode('-', node, parseProduct());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ExprNode parseProduct() {
+        ExprNode node = parseUnary();
+        while (true) {
+            skipSpaces();
+            if (pos < source.length() && "*/%".indexOf(source.charAt(pos)) >= 0) {
+                char operator = source.charAt(pos++);
+                node = new BinaryNode(operator, node, parseUnary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    // -x^2 is -(x^2), as in ordinary notation
+    private ExprNode parseUnary() {
+        if (accept('-')) {
+            return new NegateNode(parseUnary());
+        }
+        if (accept('+')) {
+            return parseUnary();
+        }
+        ExprNode base = parsePrimary();
+        return accept('^') ? new BinaryNode('^', base, parseUnary()) : base;
+    }
+
+    private ExprNode parsePrimary() {
+        skipSpaces();
+        if (pos >= source.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = source.charAt(pos);
+        if (accept('(')) {
+            ExprNode node = parseSum();
+            expect(')');
+            return node;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            int start = pos;
+            while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+                pos++;
+            }
+            String name = source.substring(start, pos);
+            if (accept('(')) {
+                return parseCall(name, start);
+            }
+            return new VariableNode(name, variables.computeIfAbsent(name, key -> variables.size()));
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private ExprNode parseNumber() {
+        int start = pos;
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < source.length() && (source.charAt(pos) == 'e' || source.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < source.length() && (source.charAt(pos) == '+' || source.charAt(pos) == '-')) {
+                pos++;
+            }
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+        }
+        String text = source.substring(start, pos);
+        try {
+            return new NumberNode(text);
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Malformed number '" + text + "'");
+        }
+    }
+
+    private ExprNode parseCall(String name, int start) {
+        Integer arity = FUNCTIONS.get(name);
+        if (arity == null) {
+            pos = start;
+            throw error("Unknown function '" + name + "'");
+        }
+        ExprNode[] arguments = new ExprNode[arity];
+        for (int i = 0; i < arity; i++) {
+            if (i > 0) {
+                expect(',');
+            }
+            arguments[i] = parseSum();
+        }
+        expect(')');
+        return new CallNode(name, arguments);
+    }
+
+    private boolean accept(char c) {
+        skipSpaces();
+        if (pos < source.length() && source.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " in \"" + source + "\"");
+    }
+}
+
+// FormulaCompiler.java - Expression tree to specialised lambdas, one method set per type
+final class FormulaCompiler {
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+    private static final double[] NO_DOUBLES = new double[0];
+
+    private FormulaCompiler() {}
+
+    // ---- double ----
+
+    static DoubleFormula toDouble(ExprNode node) {
+        DoubleFormula formula = buildDouble(node);
+        if (node.isConstant() && !(node instanceof NumberNode)) {
+            double constant = formula.evaluate(NO_DOUBLES);
+            return values -> constant;
+        }
+        return formula;
+    }
+
+    private static DoubleFormula buildDouble(ExprNode node) {
+        if (node instanceof NumberNode) {
+            double constant = ((NumberNode) node).value;
+            return values -> constant;
+        }
+        if (node instanceof VariableNode) {
+            int index = ((VariableNode) node).index;
+            return values -> values[index];
+        }
+        if (node instanceof NegateNode) {
+            DoubleFormula operand = toDouble(((NegateNode) node).operand);
+            return values -> -operand.evaluate(values);
+        }
+        if (node instanceof CallNode) {
+            CallNode call = (CallNode) node;
+            DoubleFormula a = toDouble(call.arguments[0]);
+            switch (call.function) {
+                case "abs": return values -> Math.abs(a.evaluate(values));
+                case "sqrt": return values -> Math.sqrt(a.evaluate(values));
+            }
+            DoubleFormula b = toDouble(call.arguments[1]);
+            return call.function.equals("min")
+                ? values -> Math.min(a.evaluate(values), b.evaluate(values))
+                : values -> Math.max(a.evaluate(values), b.evaluate(values));
+        }
+        BinaryNode binary = (BinaryNode) node;
+        DoubleFormula left = toDouble(binary.left);
+        if (binary.right.isConstant()) {
+            double constant = toDouble(binary.right).evaluate(NO_DOUBLES);
+            return doubleWithConstant(binary.operator, left, constant);
+        }
+        DoubleFormula right = toDouble(binary.right);
+        switch (binary.operator) {
+            case '+': return values -> left.evaluate(values) + right.evaluate(values);
+            case '-': return values -> left.evaluate(values) - right.evaluate(values);
+            case '*': return values -> left.evaluate(values) * right.evaluate(values);
+            case '/': return values -> left.evaluate(values) / right.evaluate(values);
+            case '%': return values -> left.evaluate(values) % right.evaluate(values);
+            default: return values -> Math.pow(left.evaluate(values), right.evaluate(values));
+        }
+    }
+
+    // x+0 is kept: it turns -0.0 into 0.0
+    private static DoubleFormula doubleWithConstant(char operator, DoubleFormula left, double constant) {
+        switch (operator) {
+            case '+': return values -> left.evaluate(values) + constant;
+            case '-': return constant == 0 ? left : values -> left.evaluate(values) - constant;
+            case '*': return constant == 1 ? left : values -> left.evaluate(values) * constant;
+            case '/': return constant == 1 ? left : values -> left.evaluate(values) / constant;
+            case '%': return values -> left.evaluate(values) % constant;
+            default:
+                if (constant == 2) {
+                    return values -> {
+                        double x = left.evaluate(values);
+                        return x * x;
+                    };
+                }
+                return constant == 1 ? left : values -> Math.pow(left.evaluate(values), constant);
+        }
+    }
+
+    // ---- long ----
+
+    static LongFormula toLong(ExprNode node) {
+        LongFormula formula = buildLong(node);
+        if (node.isConstant() && !(node instanceof NumberNode)) {
+            try {
+                long constant = formula.evaluate(NO_LONGS);
+                return values -> constant;
+            } catch (ArithmeticException e) {
+                return formula; // e.g. 1/0: leave the failure to evaluation time
+            }
+        }
+        return formula;
+    }
+
+    private static LongFormula buildLong(ExprNode node) {
+        if (node instanceof NumberNode) {
+            long constant = Long.parseLong(integerLiteral((NumberNode) node));
+            return values -> constant;
+        }
+        if (node instanceof VariableNode) {
+            int index = ((VariableNode) node).index;
+            return values -> values[index];
+        }
+        if (node instanceof NegateNode) {
+            LongFormula operand = toLong(((NegateNode) node).operand);
+            return values -> -operand.evaluate(values);
+        }
+        if (node instanceof CallNode) {
+            CallNode call = (CallNode) node;
+            LongFormula a = toLong(call.arguments[0]);
+            switch (call.function) {
+                case "abs": return values -> Math.abs(a.evaluate(values));
+                case "sqrt": return values -> (long) Math.sqrt(a.evaluate(values));
+            }
+            LongFormula b = toLong(call.arguments[1]);
+            return call.function.equals("min")
+                ? values -> Math.min(a.evaluate(values), b.evaluate(values))
+                : values -> Math.max(a.evaluate(values), b.evaluate(values));
+        }
+        BinaryNode binary = (BinaryNode) node;
+        LongFormula left = toLong(binary.left);
+        LongFormula right = toLong(binary.right);
+        if (binary.right.isConstant()) {
+            try {
+                return longWithConstant(binary.operator, left, right.evaluate(NO_LONGS));
+            } catch (ArithmeticException e) {
+                // fall through to the general form
+            }
+        }
+        switch (binary.operator) {
+            case '+': return values -> left.evaluate(values) + right.evaluate(values);
+            case '-': return values -> left.evaluate(values) - right.evaluate(values);
+            case '*': return values -> left.evaluate(values) * right.evaluate(values);
+            case '/': return values -> left.evaluate(values) / right.evaluate(values);
+            case '%': return values -> left.evaluate(values) % right.evaluate(values);
+            default: return values -> powLong(left.evaluate(values), right.evaluate(values));
+        }
+    }
+
+    private static LongFormula longWithConstant(char operator, LongFormula left, long constant) {
+        switch (operator) {
+            case '+': return constant == 0 ? left : values -> left.evaluate(values) + constant;
+            case '-': return constant == 0 ? left : values -> left.evaluate(values) - constant;
+            case '*': return constant == 1 ? left : values -> left.evaluate(values) * constant;
+            case '/':
+                if (constant == 0) {
+                    throw new ArithmeticException("/ by zero");
+                }
+                return constant == 1 ? left : values -> left.evaluate(values) / constant;
+            case '%':
+                if (constant == 0) {
+                    throw new ArithmeticException("/ by zero");
+                }
+                return values -> left.evaluate(values) % constant;
+            default:
+                if (constant == 2) {
+                    return values -> {
+                        long x = left.evaluate(values);
+                        return x * x;
+                    };
+                }
+                return constant == 1 ? left : values -> powLong(left.evaluate(values), constant);
+        }
+    }
+
+    // ---- int ----
+
+    static IntFormula toInt(ExprNode node) {
+        IntFormula formula = buildInt(node);
+        if (node.isConstant() && !(node instanceof NumberNode)) {
+            try {
+                int constant = formula.evaluate(NO_INTS);
+                return values -> constant;
+            } catch (ArithmeticException e) {
+                return formula;
+            }
+        }
+        return formula;
+    }
+
+    private static IntFormula buildInt(ExprNode node) {
+        if (node instanceof NumberNode) {
+            int constant = Integer.parseInt(integerLiteral((NumberNode) node));
+            return values -> constant;
+        }
+        if (node instanceof VariableNode) {
+            int index = ((VariableNode) node).index;
+            return values -> values[index];
+        }
+        if (node instanceof NegateNode) {
+            IntFormula operand = toInt(((NegateNode) node).operand);
+            return values -> -operand.evaluate(values);
+        }
+        if (node instanceof CallNode) {
+            CallNode call = (CallNode) node;
+            IntFormula a = toInt(call.arguments[0]);
+            switch (call.function) {
+                case "abs": return values -> Math.abs(a.evaluate(values));
+                case "sqrt": return values -> (int) Math.sqrt(a.evaluate(values));
+            }
+            IntFormula b = toInt(call.arguments[1]);
+            return call.function.equals("min")
+                ? values -> Math.min(a.evaluate(values), b.evaluate(values))
+                : values -> Math.max(a.evaluate(values), b.evaluate(values));
+        }
+        BinaryNode binary = (BinaryNode) node;
+        IntFormula left = toInt(binary.left);
+        IntFormula right = toInt(binary.right);
+        if (binary.right.isConstant()) {
+            try {
+                return intWithConstant(binary.operator, left, right.evaluate(NO_INTS));
+            } catch (ArithmeticException e) {
+                // fall through to the general form
+            }
+        }
+        switch (binary.operator) {
+            case '+': return values -> left.evaluate(values) + right.evaluate(values);
+            case '-': return values -> left.evaluate(values) - right.evaluate(values);
+            case '*': return values -> left.evaluate(values) * right.evaluate(values);
+            case '/': return values -> left.evaluate(values) / right.evaluate(values);
+            case '%': return values -> left.evaluate(values) % right.evaluate(values);
+            default: return values -> (int) powLong(left.evaluate(values), right.evaluate(values));
+        }
+    }
+
+    private static IntFormula intWithConstant(char operator, IntFormula left, int constant) {
+        switch (operator) {
+            case '+': return constant == 0 ? left : values -> left.evaluate(values) + constant;
+            case '-': return constant == 0 ? left : values -> left.evaluate(values) - constant;
+            case '*': return constant == 1 ? left : values -> left.evaluate(values) * constant;
+            case '/':
+                if (constant == 0) {
+                    throw new ArithmeticException("/ by zero");
+                }
+                return constant == 1 ? left : values -> left.evaluate(values) / constant;
+            case '%':
+                if (constant == 0) {
+                    throw new ArithmeticException("/ by zero");
+                }
+                return values -> left.evaluate(values) % constant;
+            default:
+                if (constant == 2) {
+                    return values -> {
+                        int x = left.evaluate(values);
+                        return x * x;
+                    };
+                }
+                return constant == 1 ? left : values -> (int) powLong(left.evaluate(values), constant);
+        }
+    }
+
+    // Integer power by squaring; wraps on overflow like the other integer operators
+    private static long powLong(long base, long exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent in integer power");
+        }
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    private static String integerLiteral(NumberNode node) {
+        if (!node.isInteger()) {
+            throw new IllegalArgumentException("'" + node.text + "' is not an integer literal");
+        }
+        return node.text;
+    }
+}
+
+// CompiledExpression.java - One parsed formula with lazily compiled int/long/double forms
+class CompiledExpression {
+    private final String source;
+    private final ExprNode tree;
+    private final List<String> variables;
+    private volatile IntFormula intFormula;
+    private volatile LongFormula longFormula;
+    private volatile DoubleFormula doubleFormula;
+
+    CompiledExpression(String source) {
+        ExpressionParser parser = new ExpressionParser(source);
+        this.source = source;
+        this.tree = parser.parse();
+        this.variables = Collections.unmodifiableList(parser.getVariables());
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // Variable names in the order their values are expected
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public int evaluate(int[] values) {
+        checkArity(values.length);
+        return asInt().evaluate(values);
+    }
+
+    public long evaluate(long[] values) {
+        checkArity(values.length);
+        return asLong().evaluate(values);
+    }
+
+    public double evaluate(double[] values) {
+        checkArity(values.length);
+        return asDouble().evaluate(values);
+    }
+
+    // The raw formulas skip the arity check, for the tightest loops
+    public IntFormula asInt() {
+        IntFormula formula = intFormula;
+        if (formula == null) {
+            intFormula = formula = FormulaCompiler.toInt(tree);
+        }
+        return formula;
+    }
+
+    public LongFormula asLong() {
+        LongFormula formula = longFormula;
+        if (formula == null) {
+            longFormula = formula = FormulaCompiler.toLong(tree);
+        }
+        return formula;
+    }
+
+    public DoubleFormula asDouble() {
+        DoubleFormula formula = doubleFormula;
+        if (formula == null) {
+            doubleFormula = formula = FormulaCompiler.toDouble(tree);
+        }
+        return formula;
+    }
+
+    // Tree-walking evaluation, kept as the baseline for ExpressionBenchmark
+    double interpret(double[] values) {
+        checkArity(values.length);
+        return tree.interpret(values);
+    }
+
+    private void checkArity(int length) {
+        if (length != variables.size()) {
+            throw new IllegalArgumentException("Expected values for " + variables + ", got " + length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source + " " + variables;
+    }
+}
+
+// ExpressionCompiler.java - Entry point with a cache of compiled expressions
+final class ExpressionCompiler {
+    private static final int CACHE_LIMIT = 1_024;
+    private static final ConcurrentHashMap<String, CompiledExpression> cache = new ConcurrentHashMap<>();
+
+    private ExpressionCompiler() {}
+
+    public static CompiledExpression compile(String source) {
+        CompiledExpression compiled = cache.get(source);
+        if (compiled != null) {
+            return compiled;
+        }
+        compiled = new CompiledExpression(source); // parse errors are not cached
+        if (cache.size() >= CACHE_LIMIT) {
+            cache.clear(); // formulas are cheap to rebuild; keep the bound simple
+        }
+        CompiledExpression existing = cache.putIfAbsent(source, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    public static int cacheSize() {
+        return cache.size();
+    }
+}
+
+// ExpressionBenchmark.java - Compiled formulas vs walking the tree
+// Run with: java ExpressionBenchmark [iterations]
+class ExpressionBenchmark {
+    private static final String FORMULA = "3*x*x + 2*x*y - (4 + 6)/2 + max(y, 1) * 1";
+    private static volatile double sink; // keeps results observable so the loops are not removed
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CompiledExpression expression = ExpressionCompiler.compile(FORMULA);
+        System.out.println("📐 " + expression);
+
+        for (int round = 0; round < 3; round++) {
+            run("Interpreted", iterations, threads, expression, 0);
+            run("double     ", iterations, threads, expression, 1);
+            run("long       ", iterations, threads, expression, 2);
+            run("int        ", iterations, threads, expression, 3);
+        }
+    }
+
+    private static void run(String label, int iterations, com.sun.management.ThreadMXBean threads,
+                            CompiledExpression expression, int mode) {
+        double[] doubles = new double[2];
+        long[] longs = new long[2];
+        int[] ints = new int[2];
+        DoubleFormula asDouble = expression.asDouble();
+        LongFormula asLong = expression.asLong();
+        IntFormula asInt = expression.asInt();
+
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        double total = 0;
+        for (int i = 0; i < iterations; i++) {
+            int x = i & 1023;
+            int y = (i >> 10) & 63;
+            switch (mode) {
+                case 0:
+                    doubles[0] = x;
+                    doubles[1] = y;
+                    total += expression.interpret(doubles);
+                    break;
+                case 1:
+                    doubles[0] = x;
+                    doubles[1] = y;
+                    total += asDouble.evaluate(doubles);
+                    break;
+                case 2:
+                    longs[0] = x;
+                    longs[1] = y;
+                    total += asLong.evaluate(longs);
+                    break;
+                default:
+                    ints[0] = x;
+                    ints[1] = y;
+                    total += asInt.evaluate(ints);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink = total;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%s: %.1f ns/op, %.2f bytes/op%n", label, (double) elapsed / iterations,
+            (double) allocated / iterations);
+    }
+}
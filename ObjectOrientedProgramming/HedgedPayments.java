@@ -0,0 +1,418 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// Hedged Payments - Backup requests for slow PaymentProcessors, without double charges
+// If the primary processor has not answered by a deadline taken from its recent latency
+// percentile, the same payment is sent to a backup. The first success wins and the
+// other request is cancelled. Cancellation is cooperative: an attempt that has not
+// started charging never will, but one already talking to its provider is left to
+// finish, because the processors here treat an interrupt as a completed payment.
+// Only IdempotentPaymentProcessor implementations can be hedged, and three safeguards
+// keep a customer from being charged twice:
+//  1. both requests carry the same idempotency key, so one provider never charges twice;
+//  2. a key that already succeeded returns its transaction instead of charging again
+//     while the key store retains it (pass the same key when retrying, e.g. through
+//     ECommerceSystem.processOrder);
+//  3. if both requests still produce separate charges, the losing one is refunded.
+// A budget caps how many payments may be hedged, so a slow provider does not get
+// twice the load.
+
+// IdempotentPaymentProcessor.java - Opt-in contract for hedging
+interface IdempotentPaymentProcessor extends PaymentProcessor {
+    // Charges at most once per idempotency key; returns the transaction id, or null if declined
+    String charge(double amount, String paymentDetails, String idempotencyKey);
+
+    // As above, but gives up without charging if cancelled is true by the time the
+    // charge would be sent; implementations should check it as late as they can
+    default String charge(double amount, String paymentDetails, String idempotencyKey, BooleanSupplier cancelled) {
+        return cancelled.getAsBoolean() ? null : charge(amount, paymentDetails, idempotencyKey);
+    }
+
+    boolean refund(String transactionId);
+
+    @Override
+    default boolean processPayment(double amount, String paymentDetails) {
+        return charge(amount, paymentDetails, UUID.randomUUID().toString()) != null;
+    }
+}
+
+// IdempotencyKeyStore.java - Outcomes of recent idempotency keys
+// A key whose charge is still running is always kept. Finished keys are kept for a
+// retention period, long enough for any client retry, and at most maxFinished of them;
+// the oldest are forgotten first. A key retried after it was forgotten charges again.
+class IdempotencyKeyStore {
+    private final ConcurrentHashMap<String, CompletableFuture<String>> outcomes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<FinishedKey> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final long retentionNanos;
+    private final int maxFinished;
+
+    private static class FinishedKey {
+        final String key;
+        final CompletableFuture<String> outcome;
+        final long finishedNanos;
+
+        FinishedKey(String key, CompletableFuture<String> outcome, long finishedNanos) {
+            this.key = key;
+            this.outcome = outcome;
+            this.finishedNanos = finishedNanos;
+        }
+    }
+
+    public IdempotencyKeyStore() {
+        this(Duration.ofHours(24), 100_000);
+    }
+
+    public IdempotencyKeyStore(Duration retention, int maxFinished) {
+        if (retention.isNegative() || maxFinished < 0) {
+            throw new IllegalArgumentException("Invalid key retention");
+        }
+        this.retentionNanos = retention.toNanos();
+        this.maxFinished = maxFinished;
+    }
+
+    // Registers mine for the key, or returns the outcome already registered for it
+    CompletableFuture<String> claim(String key, CompletableFuture<String> mine) {
+        expire();
+        return outcomes.putIfAbsent(key, mine);
+    }
+
+    // Frees a key whose attempt charged nothing, so a retry may run
+    void release(String key, CompletableFuture<String> mine) {
+        outcomes.remove(key, mine);
+    }
+
+    // The charge for the key is over; from now on the key can expire
+    void finished(String key, CompletableFuture<String> outcome) {
+        finished.add(new FinishedKey(key, outcome, System.nanoTime()));
+        finishedCount.incrementAndGet();
+        expire();
+    }
+
+    public int size() {
+        return outcomes.size();
+    }
+
+    // One thread sweeps at a time; the others skip, since the next call sweeps again
+    private void expire() {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            FinishedKey oldest;
+            while ((oldest = finished.peek()) != null
+                    && (finishedCount.get() > maxFinished || now - oldest.finishedNanos > retentionNanos)) {
+                finished.poll();
+                finishedCount.decrementAndGet();
+                outcomes.remove(oldest.key, oldest.outcome);
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+}
+
+// IdempotentPaymentGateway.java - Adds idempotency keys and refunds to a plain processor
+// Gateways that share one key store behave like endpoints of the same provider.
+class IdempotentPaymentGateway implements IdempotentPaymentProcessor {
+    private final PaymentProcessor delegate;
+    private final IdempotencyKeyStore keyStore;
+    private final Set<String> refunded = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextTransaction = new AtomicLong(1);
+
+    public IdempotentPaymentGateway(PaymentProcessor delegate) {
+        this(delegate, new IdempotencyKeyStore());
+    }
+
+    public IdempotentPaymentGateway(PaymentProcessor delegate, IdempotencyKeyStore keyStore) {
+        this.delegate = delegate;
+        this.keyStore = keyStore;
+    }
+
+    // A payment without a key cannot be retried by key, so nothing is stored for it
+    @Override
+    public boolean processPayment(double amount, String paymentDetails) {
+        return delegate.processPayment(amount, paymentDetails);
+    }
+
+    @Override
+    public String charge(double amount, String paymentDetails, String idempotencyKey) {
+        return charge(amount, paymentDetails, idempotencyKey, () -> false);
+    }
+
+    @Override
+    public String charge(double amount, String paymentDetails, String idempotencyKey, BooleanSupplier cancelled) {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = keyStore.claim(idempotencyKey, mine);
+        if (existing != null) {
+            return existing.join(); // same key: report the first request's outcome
+        }
+        if (cancelled.getAsBoolean()) {
+            keyStore.release(idempotencyKey, mine); // nothing was charged; the key stays free
+            mine.complete(null);
+            return null;
+        }
+        try {
+            String transactionId = delegate.processPayment(amount, paymentDetails)
+                ? delegate.getPaymentMethod().replace(" ", "").toUpperCase() + "-" + nextTransaction.getAndIncrement()
+                : null;
+            mine.complete(transactionId);
+            keyStore.finished(idempotencyKey, mine);
+            return transactionId;
+        } catch (RuntimeException e) {
+            keyStore.release(idempotencyKey, mine); // nothing was charged; allow a retry
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean refund(String transactionId) {
+        if (!refunded.add(transactionId)) {
+            return false;
+        }
+        System.out.println("↩️ Refunded " + transactionId);
+        return true;
+    }
+
+    @Override
+    public String getPaymentMethod() {
+        return delegate.getPaymentMethod();
+    }
+}
+
+// LatencyPercentiles.java - Recent successful latencies for deadline estimates
+class LatencyPercentiles {
+    private final long[] samples;
+    private int count;
+    private int next;
+
+    public LatencyPercentiles(int window) {
+        this.samples = new long[window];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    // percentile in (0, 100]; -1 when there are no samples yet
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+}
+
+// HedgeMetrics.java
+class HedgeMetrics {
+    final AtomicLong payments = new AtomicLong();
+    final AtomicLong hedged = new AtomicLong();
+    final AtomicLong backupWins = new AtomicLong();
+    final AtomicLong overBudget = new AtomicLong();
+    final AtomicLong duplicateKeys = new AtomicLong();
+    final AtomicLong refunds = new AtomicLong();
+
+    public long getPayments() { return payments.get(); }
+    public long getHedged() { return hedged.get(); }
+    public long getBackupWins() { return backupWins.get(); }
+    public long getOverBudget() { return overBudget.get(); }
+    public long getDuplicateKeys() { return duplicateKeys.get(); }
+    public long getRefunds() { return refunds.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("payments=%d, hedged=%d, backupWins=%d, overBudget=%d, duplicateKeys=%d, refunds=%d",
+            getPayments(), getHedged(), getBackupWins(), getOverBudget(), getDuplicateKeys(), getRefunds());
+    }
+}
+
+// HedgedPaymentProcessor.java - Drop-in PaymentProcessor for processOrder
+class HedgedPaymentProcessor implements PaymentProcessor, AutoCloseable {
+    private static final int MIN_SAMPLES = 20;
+    private static final int COMPLETED_KEYS_LIMIT = 10_000;
+
+    private final IdempotentPaymentProcessor primary;
+    private final IdempotentPaymentProcessor backup;
+    private final double percentile;
+    private final long defaultDeadlineNanos;
+    private final double hedgeBudget;
+    private final LatencyPercentiles latencies = new LatencyPercentiles(512);
+    private final HedgeMetrics metrics = new HedgeMetrics();
+    private final ExecutorService executor;
+
+    // Successful keys, oldest first, so repeated keys can be answered without charging
+    private final Map<String, String> completedKeys = Collections.synchronizedMap(
+        new LinkedHashMap<String, String>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > COMPLETED_KEYS_LIMIT;
+            }
+        });
+
+    public HedgedPaymentProcessor(IdempotentPaymentProcessor primary, IdempotentPaymentProcessor backup) {
+        this(primary, backup, 95, 1_500, 0.1);
+    }
+
+    // Hedge after the primary's p<percentile> latency (defaultDeadlineMillis until it has
+    // enough history); hedgeBudget is the largest share of payments that may be hedged
+    public HedgedPaymentProcessor(IdempotentPaymentProcessor primary, IdempotentPaymentProcessor backup,
+                                  double percentile, long defaultDeadlineMillis, double hedgeBudget) {
+        this.primary = primary;
+        this.backup = backup;
+        this.percentile = percentile;
+        this.defaultDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(defaultDeadlineMillis);
+        this.hedgeBudget = hedgeBudget;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hedged-payment");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Every call is a new payment; use charge() with a stable key to make retries safe
+    @Override
+    public boolean processPayment(double amount, String paymentDetails) {
+        return charge(amount, paymentDetails, UUID.randomUUID().toString()) != null;
+    }
+
+    // Returns the winning transaction id, or null if the payment was declined everywhere.
+    // Calling again with the same key returns the earlier transaction without charging.
+    public String charge(double amount, String paymentDetails, String idempotencyKey) {
+        metrics.payments.incrementAndGet();
+        String previous = completedKeys.get(idempotencyKey);
+        if (previous != null) {
+            metrics.duplicateKeys.incrementAndGet();
+            return previous;
+        }
+
+        Attempt first = start(primary, amount, paymentDetails, idempotencyKey);
+        String transactionId;
+        try {
+            transactionId = first.outcome.get(getDeadlineNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            transactionId = hedge(first, amount, paymentDetails, idempotencyKey);
+        } catch (ExecutionException e) {
+            transactionId = null; // the processor threw: treat as declined, nothing to hedge
+        } catch (InterruptedException e) {
+            // The caller hears "declined", so a charge the attempt still makes is refunded
+            Thread.currentThread().interrupt();
+            abandon(first, null);
+            transactionId = null;
+        }
+
+        if (transactionId != null) {
+            completedKeys.put(idempotencyKey, transactionId);
+        }
+        return transactionId;
+    }
+
+    public long getDeadlineNanos() {
+        return latencies.getCount() < MIN_SAMPLES ? defaultDeadlineNanos : latencies.percentile(percentile);
+    }
+
+    public HedgeMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getPaymentMethod() {
+        return primary.getPaymentMethod();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static final class Attempt {
+        final IdempotentPaymentProcessor processor;
+        final CompletableFuture<String> outcome = new CompletableFuture<>();
+        volatile boolean cancelled;
+
+        Attempt(IdempotentPaymentProcessor processor) {
+            this.processor = processor;
+        }
+    }
+
+    private Attempt start(IdempotentPaymentProcessor processor, double amount, String details, String key) {
+        Attempt attempt = new Attempt(processor);
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                String transactionId = processor.charge(amount, details, key, () -> attempt.cancelled);
+                // A cancelled run says nothing about how fast the primary normally is
+                if (transactionId != null && processor == primary && !attempt.cancelled) {
+                    latencies.record(System.nanoTime() - start);
+                }
+                attempt.outcome.complete(transactionId);
+            } catch (RuntimeException e) {
+                attempt.outcome.completeExceptionally(e);
+            }
+        });
+        return attempt;
+    }
+
+    private String hedge(Attempt first, double amount, String details, String key) {
+        long payments = metrics.payments.get();
+        if (metrics.hedged.get() + 1 > hedgeBudget * payments + 1) {
+            metrics.overBudget.incrementAndGet();
+            return first.outcome.handle((transactionId, error) -> transactionId).join();
+        }
+        metrics.hedged.incrementAndGet();
+        Attempt second = start(backup, amount, details, key);
+
+        // First success wins; null only once both have failed or declined
+        CompletableFuture<Attempt> winner = new CompletableFuture<>();
+        AtomicInteger failuresLeft = new AtomicInteger(2);
+        for (Attempt attempt : List.of(first, second)) {
+            attempt.outcome.whenComplete((transactionId, error) -> {
+                if (transactionId != null) {
+                    winner.complete(attempt);
+                } else if (failuresLeft.decrementAndGet() == 0) {
+                    winner.complete(null);
+                }
+            });
+        }
+
+        Attempt won = winner.join();
+        if (won == null) {
+            return null;
+        }
+        if (won == second) {
+            metrics.backupWins.incrementAndGet();
+        }
+        String transactionId = won.outcome.join();
+        abandon(won == first ? second : first, transactionId);
+        return transactionId;
+    }
+
+    // Cancel an attempt whose result is no longer wanted. Cancellation may come too late;
+    // a charge it still makes is refunded unless it is the kept transaction itself
+    // (both requests reached the same provider under the same key).
+    private void abandon(Attempt attempt, String keptTransaction) {
+        attempt.cancelled = true;
+        attempt.outcome.thenAccept(transactionId -> {
+            if (transactionId != null && !transactionId.equals(keptTransaction)
+                    && attempt.processor.refund(transactionId)) {
+                metrics.refunds.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,318 @@
+import java.util.*;
+import java.util.function.LongSupplier;
+
+// Library Analytics - Streaming top-K over borrow/return activity
+
+// LibraryActivityListener.java - Receives borrow and return events from Library
+interface LibraryActivityListener {
+    void onBorrow(Member member, Book book);
+    void onReturn(Member member, Book book);
+}
+
+// TopKEntry.java - One row of a top-K report
+class TopKEntry {
+    private final String item;
+    private final String label;
+    private final long count;
+    private final long error;
+
+    public TopKEntry(String item, long count, long error) {
+        this(item, item, count, error);
+    }
+
+    public TopKEntry(String item, String label, long count, long error) {
+        this.item = item;
+        this.label = label;
+        this.count = count;
+        this.error = error;
+    }
+
+    public String getItem() { return item; }
+    // Display name last offered with the item (the item itself if none was given)
+    public String getLabel() { return label; }
+    public long getCount() { return count; }
+    // Upper bound on how much count may be overestimated
+    public long getError() { return error; }
+
+    @Override
+    public String toString() {
+        return error == 0 ? label + " (" + count + ")" : label + " (~" + count + ", ±" + error + ")";
+    }
+}
+
+// SpaceSavingSketch.java - Space-Saving heavy hitters with the Stream-Summary layout
+// Keeps at most `capacity` counters; every increment is O(1). A counter also holds the
+// item's display label, so labels are dropped together with the items they name.
+class SpaceSavingSketch {
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private Bucket minBucket; // buckets are kept in ascending count order
+
+    private static class Counter {
+        String item;
+        String label;
+        long error;
+        Bucket bucket;
+        Counter prev, next;
+    }
+
+    private static class Bucket {
+        long count;
+        Counter head;
+        Bucket prev, next;
+
+        Bucket(long count) { this.count = count; }
+    }
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String item) {
+        offer(item, item);
+    }
+
+    public void offer(String item, String label) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.label = label;
+            increment(counter);
+            return;
+        }
+
+        if (counters.size() < capacity) {
+            counter = new Counter();
+            counter.item = item;
+            counter.label = label;
+            if (minBucket == null || minBucket.count != 1) {
+                Bucket bucket = new Bucket(1);
+                bucket.next = minBucket;
+                if (minBucket != null) minBucket.prev = bucket;
+                minBucket = bucket;
+            }
+            attach(counter, minBucket);
+            counters.put(item, counter);
+        } else {
+            // Evict the item with the smallest count and inherit its count as error
+            counter = minBucket.head;
+            counters.remove(counter.item);
+            counter.item = item;
+            counter.label = label;
+            counter.error = minBucket.count;
+            counters.put(item, counter);
+            increment(counter);
+        }
+    }
+
+    public long estimate(String item) {
+        Counter counter = counters.get(item);
+        return counter == null ? 0 : counter.bucket.count;
+    }
+
+    public List<TopKEntry> entries() {
+        List<TopKEntry> result = new ArrayList<>(counters.size());
+        for (Counter counter : counters.values()) {
+            result.add(new TopKEntry(counter.item, counter.label, counter.bucket.count, counter.error));
+        }
+        return result;
+    }
+
+    // Largest count an item missing from the sketch can have had
+    public long missingBound() {
+        return counters.size() < capacity ? 0 : minBucket.count;
+    }
+
+    public void clear() {
+        counters.clear();
+        minBucket = null;
+    }
+
+    public int size() { return counters.size(); }
+    public int getCapacity() { return capacity; }
+
+    private void increment(Counter counter) {
+        Bucket bucket = counter.bucket;
+        long newCount = bucket.count + 1;
+        Bucket target = bucket.next;
+        if (target == null || target.count != newCount) {
+            target = new Bucket(newCount);
+            target.prev = bucket;
+            target.next = bucket.next;
+            if (bucket.next != null) bucket.next.prev = target;
+            bucket.next = target;
+        }
+        detach(counter);
+        attach(counter, target);
+    }
+
+    private void attach(Counter counter, Bucket bucket) {
+        counter.bucket = bucket;
+        counter.prev = null;
+        counter.next = bucket.head;
+        if (bucket.head != null) bucket.head.prev = counter;
+        bucket.head = counter;
+    }
+
+    private void detach(Counter counter) {
+        Bucket bucket = counter.bucket;
+        if (counter.prev != null) counter.prev.next = counter.next;
+        else bucket.head = counter.next;
+        if (counter.next != null) counter.next.prev = counter.prev;
+
+        if (bucket.head == null) {
+            // Unlink the empty bucket
+            if (bucket.prev != null) bucket.prev.next = bucket.next;
+            else minBucket = bucket.next;
+            if (bucket.next != null) bucket.next.prev = bucket.prev;
+        }
+    }
+}
+
+// SlidingTopK.java - Approximate top-K over a sliding time window
+// The window is split into panes, each with its own sketch; expired panes are recycled.
+class SlidingTopK {
+    private final SpaceSavingSketch[] panes;
+    private final long paneMillis;
+    private final LongSupplier clock;
+    private long currentPane;
+    private int currentIndex;
+
+    public SlidingTopK(int capacity, long windowMillis, int paneCount, LongSupplier clock) {
+        if (paneCount <= 0 || windowMillis < paneCount) {
+            throw new IllegalArgumentException("Window must cover at least one millisecond per pane");
+        }
+        this.panes = new SpaceSavingSketch[paneCount];
+        for (int i = 0; i < paneCount; i++) {
+            panes[i] = new SpaceSavingSketch(capacity);
+        }
+        this.paneMillis = windowMillis / paneCount;
+        this.clock = clock;
+        this.currentPane = clock.getAsLong() / paneMillis;
+    }
+
+    public synchronized void offer(String item) {
+        offer(item, item);
+    }
+
+    public synchronized void offer(String item, String label) {
+        advance();
+        panes[currentIndex].offer(item, label);
+    }
+
+    // Counts stay overestimates after merging: a pane that no longer tracks an item may
+    // still have seen it up to missingBound() times, so that is added to count and error.
+    // Panes are merged oldest first, so each item keeps its most recent label.
+    public synchronized List<TopKEntry> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        advance();
+        Map<String, long[]> merged = new HashMap<>();
+        Map<String, String> labels = new HashMap<>();
+        long missingTotal = 0;
+        for (int i = 1; i <= panes.length; i++) {
+            SpaceSavingSketch pane = panes[(currentIndex + i) % panes.length];
+            long bound = pane.missingBound();
+            missingTotal += bound;
+            for (TopKEntry entry : pane.entries()) {
+                labels.put(entry.getItem(), entry.getLabel());
+                long[] totals = merged.computeIfAbsent(entry.getItem(), key -> new long[3]);
+                totals[0] += entry.getCount();
+                totals[1] += entry.getError();
+                totals[2] += bound; // this pane does track the item
+            }
+        }
+        for (long[] totals : merged.values()) {
+            long absent = missingTotal - totals[2];
+            totals[0] += absent;
+            totals[1] += absent;
+        }
+
+        List<TopKEntry> result = new ArrayList<>(merged.size());
+        merged.forEach((item, totals) -> result.add(new TopKEntry(item, labels.get(item), totals[0], totals[1])));
+        result.sort(Comparator.comparingLong(TopKEntry::getCount).reversed()
+            .thenComparing(TopKEntry::getItem));
+        return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+    }
+
+    private void advance() {
+        long pane = clock.getAsLong() / paneMillis;
+        if (pane <= currentPane) {
+            return;
+        }
+        long steps = Math.min(pane - currentPane, panes.length);
+        for (long i = 0; i < steps; i++) {
+            currentIndex = (currentIndex + 1) % panes.length;
+            panes[currentIndex].clear();
+        }
+        currentPane = pane;
+    }
+}
+
+// LibraryAnalytics.java - Dashboard statistics fed by Library activity events
+// Books and members are counted by ISBN and member id, since titles and names need not
+// be unique, and are shown under their latest known title or name. The sketches carry
+// those names, so no name outlives the counters that track its book or member.
+class LibraryAnalytics implements LibraryActivityListener {
+    private final SlidingTopK books;
+    private final SlidingTopK authors;
+    private final SlidingTopK genres;
+    private final SlidingTopK members;
+
+    public LibraryAnalytics() {
+        // One week, split into daily panes, tracking up to 1000 items per pane
+        this(1000, 7L * 24 * 60 * 60 * 1000, 7, System::currentTimeMillis);
+    }
+
+    public LibraryAnalytics(int capacity, long windowMillis, int paneCount, LongSupplier clock) {
+        books = new SlidingTopK(capacity, windowMillis, paneCount, clock);
+        authors = new SlidingTopK(capacity, windowMillis, paneCount, clock);
+        genres = new SlidingTopK(capacity, windowMillis, paneCount, clock);
+        members = new SlidingTopK(capacity, windowMillis, paneCount, clock);
+    }
+
+    @Override
+    public void onBorrow(Member member, Book book) {
+        books.offer(book.getIsbn(), book.getTitle());
+        authors.offer(book.getAuthor());
+        genres.offer(book.getGenre());
+        recordMember(member);
+    }
+
+    @Override
+    public void onReturn(Member member, Book book) {
+        recordMember(member);
+    }
+
+    public List<TopKEntry> getTopBooks(int k) { return books.top(k); }
+    public List<TopKEntry> getTopAuthors(int k) { return authors.top(k); }
+    public List<TopKEntry> getTopGenres(int k) { return genres.top(k); }
+    public List<TopKEntry> getMostActiveMembers(int k) { return members.top(k); }
+
+    private void recordMember(Member member) {
+        members.offer(member.getMemberId(), member.getName());
+    }
+
+    public void displayDashboard(int k) {
+        System.out.println("\n📈 Library Activity Dashboard:");
+        printSection("Most Borrowed Books", getTopBooks(k));
+        printSection("Top Authors", getTopAuthors(k));
+        printSection("Top Genres", getTopGenres(k));
+        printSection("Most Active Members", getMostActiveMembers(k));
+    }
+
+    private void printSection(String heading, List<TopKEntry> entries) {
+        System.out.println(heading + ":");
+        if (entries.isEmpty()) {
+            System.out.println("No activity yet");
+        } else {
+            for (int i = 0; i < entries.size(); i++) {
+                System.out.println((i + 1) + ". " + entries.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Library Bulk Loader - Parallel ingestion of book catalog files
+//
+// Input is tab-separated, one book per line:
+//   isbn <TAB> title <TAB> author [<TAB> genre <TAB> yyyy-MM-dd]
+// Blank lines and lines starting with '#' are ignored.
+
+// BulkLoadResult.java - Counters reported after a bulk load
+class BulkLoadResult {
+    private final int added;
+    private final int duplicates;
+    private final int rejected;
+    private final long elapsedMillis;
+
+    public BulkLoadResult(int added, int duplicates, int rejected, long elapsedMillis) {
+        this.added = added;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getAdded() { return added; }
+    public int getDuplicates() { return duplicates; }
+    public int getRejected() { return rejected; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("Bulk import: %d books added, %d duplicates skipped, %d malformed lines rejected (%d ms)",
+            added, duplicates, rejected, elapsedMillis);
+    }
+}
+
+// LibraryBulkLoader.java
+// Parsing runs on a worker pool; parsed books stream to the calling thread in batches
+// through a bounded queue and are inserted while parsing continues. Duplicate ISBNs are
+// caught at insert time against the library itself, so apart from the library the
+// loader holds only a few batches per worker however large the input is, and the
+// library is only ever touched from the calling thread. A load that fails partway
+// still records how many books it added.
+class LibraryBulkLoader {
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 16 << 20; // one chunk is decoded at a time per worker
+    private static final int SCAN_BYTES = 64 * 1024;
+
+    private final Library library;
+    private final int parallelism;
+    private final int batchSize;
+
+    public LibraryBulkLoader(Library library) {
+        this(library, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public LibraryBulkLoader(Library library, int parallelism, int batchSize) {
+        if (parallelism <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Parallelism and batch size must be positive");
+        }
+        this.library = library;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    public BulkLoadResult load(Path... files) throws IOException {
+        long start = System.nanoTime();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        BlockingQueue<List<Book>> parsed = new ArrayBlockingQueue<>(parallelism * 2);
+        for (Path file : files) {
+            for (long[] range : splitIntoChunks(file)) {
+                tasks.add(() -> {
+                    parseChunk(file, range[0], range[1], parsed, rejected);
+                    return null;
+                });
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        int added = 0;
+        boolean completed = false;
+        try {
+            CompletionService<Void> parsing = new ExecutorCompletionService<>(pool);
+            for (Callable<Void> task : tasks) {
+                parsing.submit(task);
+            }
+            // Insert batches as they arrive until every chunk is parsed and drained
+            int remaining = tasks.size();
+            while (remaining > 0 || !parsed.isEmpty()) {
+                List<Book> batch = parsed.poll(10, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    added += insert(batch, duplicates);
+                }
+                Future<Void> done;
+                while ((done = parsing.poll()) != null) {
+                    done.get();
+                    remaining--;
+                }
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk load interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Bulk load failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (!completed) {
+                library.recordBulkImport("Bulk import aborted: " + added + " books added before the failure");
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        BulkLoadResult result = new BulkLoadResult(added, duplicates.get(), rejected.get(), elapsedMillis);
+        library.recordBulkImport(result.toString());
+        return result;
+    }
+
+    // Calling thread only: books already in the library, or earlier in this batch, count
+    // as duplicates; the first copy of an ISBN to arrive is the one kept
+    private int insert(List<Book> batch, AtomicInteger duplicates) {
+        Set<String> batchIsbns = new HashSet<>(batch.size() * 2);
+        batch.removeIf(book -> {
+            if (!batchIsbns.add(book.getIsbn()) || library.hasBook(book.getIsbn())) {
+                duplicates.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+        library.addBooks(batch);
+        return batch.size();
+    }
+
+    // Split a file into byte ranges that each start at the beginning of a line
+    private List<long[]> splitIntoChunks(Path file) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (parallelism * 4L) + 1));
+            ByteBuffer window = ByteBuffer.allocate(SCAN_BYTES);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + chunkSize);
+                if (end < size) {
+                    end = lineEndFrom(channel, end - 1, size, window);
+                }
+                ranges.add(new long[] { start, end });
+                start = end;
+            }
+        }
+        return ranges;
+    }
+
+    // Offset just past the first '\n' at or after position (or size if there is none),
+    // scanning a window of bytes per read
+    private static long lineEndFrom(FileChannel channel, long position, long size, ByteBuffer window)
+            throws IOException {
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private void parseChunk(Path file, long start, long end,
+                            BlockingQueue<List<Book>> parsed, AtomicInteger rejected)
+            throws InterruptedException {
+        List<Book> books = new ArrayList<>(batchSize);
+        String text;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            text = StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).strip();
+            lineStart = lineEnd + 1;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            Book book = parseLine(line);
+            if (book == null) {
+                rejected.incrementAndGet();
+            } else {
+                books.add(book);
+                if (books.size() == batchSize) {
+                    parsed.put(books); // waits while the inserting thread is behind
+                    books = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!books.isEmpty()) {
+            parsed.put(books);
+        }
+    }
+
+    private static Book parseLine(String line) {
+        String[] fields = line.split("\t");
+        if (fields.length != 3 && fields.length != 5) {
+            return null;
+        }
+        for (String field : fields) {
+            if (field.isBlank()) {
+                return null;
+            }
+        }
+        if (fields.length == 3) {
+            return new Book(fields[0].strip(), fields[1].strip(), fields[2].strip());
+        }
+        try {
+            return new Book(fields[0].strip(), fields[1].strip(), fields[2].strip(),
+                fields[3].strip(), LocalDate.parse(fields[4].strip()));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
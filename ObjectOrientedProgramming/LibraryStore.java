@@ -0,0 +1,542 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Library Store - Memory-mapped persistence for books and members
+//
+// Files in the store directory:
+//   books.dat / members.dat   fixed 64-byte records
+//   strings.dat               append-only UTF-8 arena for titles, names, ISBNs...
+//   books.idx / members.idx   open-addressing hash tables (key -> record number)
+// Opening a store only maps these files; nothing is parsed up front.
+// Loans are a short linked list per member: the member record points at its first
+// borrowed book and each book record at the member's next one.
+
+// MappedFile.java - A file mapped read/write into memory that can grow
+class MappedFile implements AutoCloseable {
+    private final FileChannel channel;
+    private final boolean created;
+    private MappedByteBuffer buffer;
+
+    public MappedFile(Path path, long initialSize) throws IOException {
+        this.created = !Files.exists(path) || Files.size(path) == 0;
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialSize));
+    }
+
+    public boolean isCreated() { return created; }
+    public MappedByteBuffer buffer() { return buffer; }
+
+    public void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long newSize = Math.max(required, (long) buffer.capacity() * 2);
+        if (newSize > Integer.MAX_VALUE) {
+            newSize = Integer.MAX_VALUE;
+            if (required > newSize) {
+                throw new IllegalStateException("Mapped file cannot grow beyond 2GB");
+            }
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
+
+// StringArena.java - Append-only string storage; a string is referenced by (offset, length)
+class StringArena {
+    private static final int USED_OFFSET = 8;
+    private static final int DATA_START = 16;
+    private final MappedFile file;
+
+    public StringArena(MappedFile file) {
+        this.file = file;
+        if (file.isCreated()) {
+            file.buffer().putLong(USED_OFFSET, DATA_START);
+        }
+    }
+
+    public long append(byte[] bytes) {
+        long offset = file.buffer().getLong(USED_OFFSET);
+        file.ensureCapacity(offset + bytes.length);
+        file.buffer().put((int) offset, bytes);
+        file.buffer().putLong(USED_OFFSET, offset + bytes.length);
+        return offset;
+    }
+
+    public String read(long offset, int length) {
+        byte[] bytes = new byte[length];
+        file.buffer().get((int) offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public boolean matches(long offset, int length, byte[] key) {
+        if (length != key.length) {
+            return false;
+        }
+        MappedByteBuffer buffer = file.buffer();
+        for (int i = 0; i < length; i++) {
+            if (buffer.get((int) offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int hash(long offset, int length) {
+        MappedByteBuffer buffer = file.buffer();
+        int h = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ buffer.get((int) offset + i)) * 0x01000193;
+        }
+        return h;
+    }
+
+    public static int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return h;
+    }
+}
+
+// MappedHashIndex.java - Linear-probing hash table stored in a mapped file
+// Slot values: 0 = empty, -1 = deleted, otherwise record number + 1.
+class MappedHashIndex {
+    interface KeySource {
+        int hash(int record);
+        boolean matches(int record, byte[] key);
+    }
+
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int USED_OFFSET = 8;
+    private static final int SLOTS_START = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int DELETED = -1;
+    private final MappedFile file;
+    private final KeySource keys;
+
+    public MappedHashIndex(MappedFile file, KeySource keys) {
+        this.file = file;
+        this.keys = keys;
+        if (file.isCreated()) {
+            file.ensureCapacity(SLOTS_START + (long) INITIAL_CAPACITY * 4);
+            file.buffer().putInt(CAPACITY_OFFSET, INITIAL_CAPACITY);
+        }
+    }
+
+    public int find(byte[] key) {
+        MappedByteBuffer buffer = file.buffer();
+        int mask = capacity() - 1;
+        for (int slot = StringArena.hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int value = buffer.getInt(SLOTS_START + slot * 4);
+            if (value == 0) {
+                return -1;
+            }
+            if (value != DELETED && keys.matches(value - 1, key)) {
+                return value - 1;
+            }
+        }
+    }
+
+    // Caller guarantees the key is not already present
+    public void insert(int record) {
+        if ((file.buffer().getInt(USED_OFFSET) + 1) * 2 > capacity()) {
+            rehash();
+        }
+        if (place(file.buffer(), capacity(), keys.hash(record), record)) {
+            file.buffer().putInt(USED_OFFSET, file.buffer().getInt(USED_OFFSET) + 1);
+        }
+    }
+
+    public boolean remove(byte[] key) {
+        MappedByteBuffer buffer = file.buffer();
+        int mask = capacity() - 1;
+        for (int slot = StringArena.hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int value = buffer.getInt(SLOTS_START + slot * 4);
+            if (value == 0) {
+                return false;
+            }
+            if (value != DELETED && keys.matches(value - 1, key)) {
+                buffer.putInt(SLOTS_START + slot * 4, DELETED);
+                return true;
+            }
+        }
+    }
+
+    private int capacity() {
+        return file.buffer().getInt(CAPACITY_OFFSET);
+    }
+
+    // Returns true if an empty (never used) slot was consumed
+    private static boolean place(MappedByteBuffer buffer, int capacity, int hash, int record) {
+        int mask = capacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int value = buffer.getInt(SLOTS_START + slot * 4);
+            if (value == 0 || value == DELETED) {
+                buffer.putInt(SLOTS_START + slot * 4, record + 1);
+                return value == 0;
+            }
+        }
+    }
+
+    private void rehash() {
+        int oldCapacity = capacity();
+        int[] live = new int[oldCapacity];
+        int liveCount = 0;
+        MappedByteBuffer buffer = file.buffer();
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int value = buffer.getInt(SLOTS_START + slot * 4);
+            if (value > 0) {
+                live[liveCount++] = value - 1;
+            }
+        }
+
+        // Grow only if live entries need it; otherwise this just clears deleted slots
+        int newCapacity = (liveCount + 1) * 4 > oldCapacity ? oldCapacity * 2 : oldCapacity;
+        file.ensureCapacity(SLOTS_START + (long) newCapacity * 4);
+        buffer = file.buffer();
+        for (int slot = 0; slot < newCapacity; slot++) {
+            buffer.putInt(SLOTS_START + slot * 4, 0);
+        }
+        buffer.putInt(CAPACITY_OFFSET, newCapacity);
+        for (int i = 0; i < liveCount; i++) {
+            place(buffer, newCapacity, keys.hash(live[i]), live[i]);
+        }
+        buffer.putInt(USED_OFFSET, liveCount);
+    }
+}
+
+// LibraryStore.java - Persistent book and member records
+class LibraryStore implements AutoCloseable {
+    private static final int MAGIC = 0x4C494231; // "LIB1"
+    private static final int COUNT_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 64;
+    private static final long INITIAL_FILE_SIZE = 1 << 20;
+
+    // Book record layout; strings are stored as an 8-byte arena offset plus a 4-byte length
+    private static final int BOOK_ISBN = 0;
+    private static final int BOOK_TITLE = 12;
+    private static final int BOOK_AUTHOR = 24;
+    private static final int BOOK_GENRE = 36;
+    private static final int BOOK_PUBLISHED = 48;
+    private static final int BOOK_FLAGS = 56;
+    private static final int BOOK_NEXT_LOAN = 60;   // next book borrowed by the same member
+
+    // Member record layout
+    private static final int MEMBER_ID = 0;
+    private static final int MEMBER_NAME = 12;
+    private static final int MEMBER_EMAIL = 24;
+    private static final int MEMBER_JOINED = 36;
+    private static final int MEMBER_BORROWED = 44;
+    private static final int MEMBER_FLAGS = 48;
+    private static final int MEMBER_FIRST_LOAN = 52;
+
+    private static final byte FLAG_LIVE = 1;
+    private static final byte FLAG_AVAILABLE = 2;
+
+    private final MappedFile bookFile;
+    private final MappedFile memberFile;
+    private final MappedFile stringFile;
+    private final MappedFile bookIndexFile;
+    private final MappedFile memberIndexFile;
+    private final StringArena strings;
+    private final MappedHashIndex bookIndex;
+    private final MappedHashIndex memberIndex;
+
+    private LibraryStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        bookFile = openRecordFile(directory.resolve("books.dat"));
+        memberFile = openRecordFile(directory.resolve("members.dat"));
+        stringFile = openRecordFile(directory.resolve("strings.dat"));
+        bookIndexFile = openRecordFile(directory.resolve("books.idx"));
+        memberIndexFile = openRecordFile(directory.resolve("members.idx"));
+        strings = new StringArena(stringFile);
+        bookIndex = new MappedHashIndex(bookIndexFile, keySource(bookFile, BOOK_ISBN));
+        memberIndex = new MappedHashIndex(memberIndexFile, keySource(memberFile, MEMBER_ID));
+    }
+
+    public static LibraryStore open(Path directory) throws IOException {
+        return new LibraryStore(directory);
+    }
+
+    // Book operations
+    public void putBook(Book book) {
+        byte[] key = utf8(book.getIsbn());
+        int record = bookIndex.find(key);
+        boolean isNew = record < 0;
+        if (isNew) {
+            record = appendRecord(bookFile);
+        }
+
+        MappedByteBuffer buffer = bookFile.buffer();
+        int base = recordOffset(record);
+        writeString(buffer, base + BOOK_ISBN, key);
+        writeString(buffer, base + BOOK_TITLE, utf8(book.getTitle()));
+        writeString(buffer, base + BOOK_AUTHOR, utf8(book.getAuthor()));
+        writeString(buffer, base + BOOK_GENRE, utf8(book.getGenre()));
+        buffer.putLong(base + BOOK_PUBLISHED, book.getPublishDate().toEpochDay());
+        buffer.put(base + BOOK_FLAGS, (byte) (FLAG_LIVE | (book.isAvailable() ? FLAG_AVAILABLE : 0)));
+
+        if (isNew) {
+            bookIndex.insert(record);
+        }
+    }
+
+    public Book getBook(String isbn) {
+        int record = bookIndex.find(utf8(isbn));
+        return record < 0 ? null : readBook(record);
+    }
+
+    public boolean removeBook(String isbn) {
+        byte[] key = utf8(isbn);
+        int record = bookIndex.find(key);
+        if (record < 0) {
+            return false;
+        }
+        bookFile.buffer().put(recordOffset(record) + BOOK_FLAGS, (byte) 0);
+        return bookIndex.remove(key);
+    }
+
+    // In-place update of the availability flag
+    public boolean setBookAvailable(String isbn, boolean available) {
+        int record = bookIndex.find(utf8(isbn));
+        if (record < 0) {
+            return false;
+        }
+        int flagsOffset = recordOffset(record) + BOOK_FLAGS;
+        byte flags = bookFile.buffer().get(flagsOffset);
+        flags = (byte) (available ? flags | FLAG_AVAILABLE : flags & ~FLAG_AVAILABLE);
+        bookFile.buffer().put(flagsOffset, flags);
+        return true;
+    }
+
+    public boolean isBookAvailable(String isbn) {
+        int record = bookIndex.find(utf8(isbn));
+        return record >= 0 && (bookFile.buffer().get(recordOffset(record) + BOOK_FLAGS) & FLAG_AVAILABLE) != 0;
+    }
+
+    public void forEachBook(Consumer<Book> action) {
+        int count = recordCount(bookFile);
+        for (int record = 0; record < count; record++) {
+            if ((bookFile.buffer().get(recordOffset(record) + BOOK_FLAGS) & FLAG_LIVE) != 0) {
+                action.accept(readBook(record));
+            }
+        }
+    }
+
+    // Member operations
+    public void putMember(Member member) {
+        byte[] key = utf8(member.getMemberId());
+        int record = memberIndex.find(key);
+        boolean isNew = record < 0;
+        if (isNew) {
+            record = appendRecord(memberFile);
+        }
+
+        MappedByteBuffer buffer = memberFile.buffer();
+        int base = recordOffset(record);
+        writeString(buffer, base + MEMBER_ID, key);
+        writeString(buffer, base + MEMBER_NAME, utf8(member.getName()));
+        writeString(buffer, base + MEMBER_EMAIL, utf8(member.getEmail()));
+        buffer.putLong(base + MEMBER_JOINED, member.getMembershipDate().toEpochDay());
+        buffer.put(base + MEMBER_FLAGS, FLAG_LIVE);
+        writeLoans(record, member.getBorrowedBooks());
+
+        if (isNew) {
+            memberIndex.insert(record);
+        }
+    }
+
+    // The member with their borrowed books, as stored
+    public Member getMember(String memberId) {
+        int record = memberIndex.find(utf8(memberId));
+        return record < 0 ? null : readMember(record);
+    }
+
+    public void forEachMember(Consumer<Member> action) {
+        int count = recordCount(memberFile);
+        for (int record = 0; record < count; record++) {
+            if ((memberFile.buffer().get(recordOffset(record) + MEMBER_FLAGS) & FLAG_LIVE) != 0) {
+                action.accept(readMember(record));
+            }
+        }
+    }
+
+    public boolean removeMember(String memberId) {
+        byte[] key = utf8(memberId);
+        int record = memberIndex.find(key);
+        if (record < 0) {
+            return false;
+        }
+        memberFile.buffer().put(recordOffset(record) + MEMBER_FLAGS, (byte) 0);
+        return memberIndex.remove(key);
+    }
+
+    public int getBorrowedCount(String memberId) {
+        int record = memberIndex.find(utf8(memberId));
+        return record < 0 ? -1 : memberFile.buffer().getInt(recordOffset(record) + MEMBER_BORROWED);
+    }
+
+    // Flush dirty pages to disk
+    public void force() {
+        bookFile.force();
+        memberFile.force();
+        stringFile.force();
+        bookIndexFile.force();
+        memberIndexFile.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        bookFile.close();
+        memberFile.close();
+        stringFile.close();
+        bookIndexFile.close();
+        memberIndexFile.close();
+    }
+
+    // Helpers
+    private static MappedFile openRecordFile(Path path) throws IOException {
+        MappedFile file = new MappedFile(path, INITIAL_FILE_SIZE);
+        if (file.isCreated()) {
+            file.buffer().putInt(0, MAGIC);
+        } else if (file.buffer().getInt(0) != MAGIC) {
+            file.close();
+            throw new IOException("Not a library store file: " + path);
+        }
+        return file;
+    }
+
+    private MappedHashIndex.KeySource keySource(MappedFile records, int keyField) {
+        return new MappedHashIndex.KeySource() {
+            @Override
+            public int hash(int record) {
+                int base = recordOffset(record) + keyField;
+                return strings.hash(records.buffer().getLong(base), records.buffer().getInt(base + 8));
+            }
+
+            @Override
+            public boolean matches(int record, byte[] key) {
+                int base = recordOffset(record) + keyField;
+                return strings.matches(records.buffer().getLong(base), records.buffer().getInt(base + 8), key);
+            }
+        };
+    }
+
+    private Book readBook(int record) {
+        MappedByteBuffer buffer = bookFile.buffer();
+        int base = recordOffset(record);
+        Book book = new Book(readString(buffer, base + BOOK_ISBN),
+            readString(buffer, base + BOOK_TITLE),
+            readString(buffer, base + BOOK_AUTHOR),
+            readString(buffer, base + BOOK_GENRE),
+            LocalDate.ofEpochDay(buffer.getLong(base + BOOK_PUBLISHED)));
+        book.setAvailable((buffer.get(base + BOOK_FLAGS) & FLAG_AVAILABLE) != 0);
+        return book;
+    }
+
+    private Member readMember(int record) {
+        MappedByteBuffer buffer = memberFile.buffer();
+        int base = recordOffset(record);
+        Member member = new Member(readString(buffer, base + MEMBER_ID),
+            readString(buffer, base + MEMBER_NAME),
+            readString(buffer, base + MEMBER_EMAIL),
+            LocalDate.ofEpochDay(buffer.getLong(base + MEMBER_JOINED)));
+        for (int loan = buffer.getInt(base + MEMBER_FIRST_LOAN); loan != 0; ) {
+            int bookRecord = loan - 1;
+            int bookBase = recordOffset(bookRecord);
+            if ((bookFile.buffer().get(bookBase + BOOK_FLAGS) & FLAG_LIVE) != 0) {
+                member.borrowBook(readBook(bookRecord));
+            }
+            loan = bookFile.buffer().getInt(bookBase + BOOK_NEXT_LOAN);
+        }
+        return member;
+    }
+
+    // Replace the member's loan list with these books (those not in the store are skipped)
+    private void writeLoans(int memberRecord, List<Book> borrowed) {
+        MappedByteBuffer members = memberFile.buffer();
+        MappedByteBuffer books = bookFile.buffer();
+        int base = recordOffset(memberRecord);
+        for (int loan = members.getInt(base + MEMBER_FIRST_LOAN); loan != 0; ) {
+            int nextOffset = recordOffset(loan - 1) + BOOK_NEXT_LOAN;
+            loan = books.getInt(nextOffset);
+            books.putInt(nextOffset, 0);
+        }
+        int head = 0;
+        int count = 0;
+        for (int i = borrowed.size() - 1; i >= 0; i--) {
+            int bookRecord = bookIndex.find(utf8(borrowed.get(i).getIsbn()));
+            if (bookRecord >= 0) {
+                books.putInt(recordOffset(bookRecord) + BOOK_NEXT_LOAN, head);
+                head = bookRecord + 1;
+                count++;
+            }
+        }
+        members.putInt(base + MEMBER_FIRST_LOAN, head);
+        members.putInt(base + MEMBER_BORROWED, count);
+    }
+
+    private int appendRecord(MappedFile file) {
+        int record = recordCount(file);
+        file.ensureCapacity(recordOffset(record + 1));
+        file.buffer().putInt(COUNT_OFFSET, record + 1);
+        return record;
+    }
+
+    private static int recordCount(MappedFile file) {
+        return file.buffer().getInt(COUNT_OFFSET);
+    }
+
+    private static int recordOffset(int record) {
+        long offset = HEADER_SIZE + (long) record * RECORD_SIZE;
+        if (offset > Integer.MAX_VALUE - RECORD_SIZE) {
+            throw new IllegalStateException("Record file is full");
+        }
+        return (int) offset;
+    }
+
+    private void writeString(MappedByteBuffer buffer, int refOffset, byte[] bytes) {
+        // Unchanged strings keep their existing arena slot
+        long existing = buffer.getLong(refOffset);
+        if (existing != 0 && strings.matches(existing, buffer.getInt(refOffset + 8), bytes)) {
+            return;
+        }
+        long offset = strings.append(bytes);
+        buffer.putLong(refOffset, offset);
+        buffer.putInt(refOffset + 8, bytes.length);
+    }
+
+    private String readString(MappedByteBuffer buffer, int refOffset) {
+        return strings.read(buffer.getLong(refOffset), buffer.getInt(refOffset + 8));
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -68,11 +68,16 @@ class Member {
     private static final int MAX_BOOKS = 5;
     
     public Member(String memberId, String name, String email) {
+        this(memberId, name, email, LocalDate.now());
+    }
+    
+    // Used when a member is loaded back from a LibraryStore
+    public Member(String memberId, String name, String email, LocalDate membershipDate) {
         this.memberId = memberId;
         this.name = name;
         this.email = email;
         this.borrowedBooks = new ArrayList<>();
-        this.membershipDate = LocalDate.now();
+        this.membershipDate = membershipDate;
     }
     
     public boolean canBorrowMore() {
@@ -111,27 +116,154 @@ class Member {
     public static int getMaxBooks() { return MAX_BOOKS; }
 }
 
+// GenreDateIndex.java - Composite (genre, publish date) index over books
+// Genres map to date-sorted buckets; a second copy holds only available books
+// so availability-filtered range queries never touch borrowed titles.
+class GenreDateIndex {
+    private Map<String, NavigableMap<LocalDate, Map<String, Book>>> allBooks;
+    private Map<String, NavigableMap<LocalDate, Map<String, Book>>> availableBooks;
+    
+    public GenreDateIndex() {
+        allBooks = new HashMap<>();
+        availableBooks = new HashMap<>();
+    }
+    
+    public void add(Book book) {
+        put(allBooks, book);
+        if (book.isAvailable()) {
+            put(availableBooks, book);
+        }
+    }
+    
+    public void remove(Book book) {
+        delete(allBooks, book);
+        delete(availableBooks, book);
+    }
+    
+    // Call after a book's availability flag has changed
+    public void updateAvailability(Book book) {
+        if (book.isAvailable()) {
+            put(availableBooks, book);
+        } else {
+            delete(availableBooks, book);
+        }
+    }
+    
+    // Books of the given genre published between from and to (inclusive)
+    public List<Book> query(String genre, LocalDate from, LocalDate to, boolean availableOnly) {
+        NavigableMap<LocalDate, Map<String, Book>> byDate =
+            (availableOnly ? availableBooks : allBooks).get(normalize(genre));
+        List<Book> result = new ArrayList<>();
+        if (byDate == null || from.isAfter(to)) {
+            return result;
+        }
+        for (Map<String, Book> sameDay : byDate.subMap(from, true, to, true).values()) {
+            result.addAll(sameDay.values());
+        }
+        return result;
+    }
+    
+    private void put(Map<String, NavigableMap<LocalDate, Map<String, Book>>> index, Book book) {
+        index.computeIfAbsent(normalize(book.getGenre()), genre -> new TreeMap<>())
+            .computeIfAbsent(book.getPublishDate(), date -> new LinkedHashMap<>())
+            .put(book.getIsbn(), book);
+    }
+    
+    private void delete(Map<String, NavigableMap<LocalDate, Map<String, Book>>> index, Book book) {
+        String genre = normalize(book.getGenre());
+        NavigableMap<LocalDate, Map<String, Book>> byDate = index.get(genre);
+        if (byDate == null) {
+            return;
+        }
+        Map<String, Book> sameDay = byDate.get(book.getPublishDate());
+        if (sameDay != null && sameDay.remove(book.getIsbn()) != null && sameDay.isEmpty()) {
+            byDate.remove(book.getPublishDate());
+            if (byDate.isEmpty()) {
+                index.remove(genre);
+            }
+        }
+    }
+    
+    private static String normalize(String genre) {
+        return genre.toLowerCase(Locale.ROOT);
+    }
+}
+
 // Library.java
 class Library {
     private Map<String, Book> books;
     private Map<String, Member> members;
     private List<String> transactionHistory;
+    private List<LibraryActivityListener> activityListeners;
+    private GenreDateIndex genreDateIndex;
+    private LibraryStore store;
+    // With a store attached, books and members are read on first use: lookups by key go
+    // through the store's mapped index one record at a time, and the whole store is
+    // loaded only when an operation has to see every book or member
+    private boolean storeFullyLoaded = true;
     
     public Library() {
         books = new HashMap<>();
         members = new HashMap<>();
         transactionHistory = new ArrayList<>();
+        activityListeners = new ArrayList<>();
+        genreDateIndex = new GenreDateIndex();
+    }
+    
+    // Activity listeners (e.g. LibraryAnalytics) receive borrow and return events
+    public void addActivityListener(LibraryActivityListener listener) {
+        activityListeners.add(listener);
+    }
+    
+    public void removeActivityListener(LibraryActivityListener listener) {
+        activityListeners.remove(listener);
+    }
+    
+    // Open a library on its store without reading any records; they are loaded as
+    // they are used, and later changes are written through to the store
+    public static Library open(LibraryStore store) {
+        Library library = new Library();
+        library.attachStore(store);
+        return library;
+    }
+    
+    // Persist the books and members held here (these win over stored copies) and write
+    // every later change through; records that exist only in the store are loaded lazily
+    public void attachStore(LibraryStore store) {
+        this.store = store;
+        this.storeFullyLoaded = false;
+        books.values().forEach(store::putBook);
+        members.values().forEach(store::putMember);
     }
     
     // Book management
     public void addBook(Book book) {
-        books.put(book.getIsbn(), book);
+        insertBook(book);
         addTransaction("Added book: " + book.getTitle());
     }
     
+    // Bulk insert used by LibraryBulkLoader - no per-book transaction is recorded
+    public void addBooks(Collection<Book> batch) {
+        for (Book book : batch) {
+            insertBook(book);
+        }
+    }
+    
+    public boolean hasBook(String isbn) {
+        return findBook(isbn) != null;
+    }
+    
+    public void recordBulkImport(String summary) {
+        addTransaction(summary);
+    }
+    
     public boolean removeBook(String isbn) {
-        Book removedBook = books.remove(isbn);
+        Book removedBook = findBook(isbn) != null ? books.remove(isbn) : null;
         if (removedBook != null) {
+            genreDateIndex.remove(removedBook);
+            if (store != null) {
+                store.removeBook(isbn);
+            }
             addTransaction("Removed book: " + removedBook.getTitle());
             return true;
         }
@@ -141,13 +273,19 @@ class Library {
     // Member management
     public void addMember(Member member) {
         members.put(member.getMemberId(), member);
+        if (store != null) {
+            store.putMember(member);
+        }
         addTransaction("Added member: " + member.getName());
     }
     
     public boolean removeMember(String memberId) {
-        Member member = members.get(memberId);
+        Member member = findMember(memberId);
         if (member != null && member.getBorrowedBooks().isEmpty()) {
             members.remove(memberId);
+            if (store != null) {
+                store.removeMember(memberId);
+            }
             addTransaction("Removed member: " + member.getName());
             return true;
         }
@@ -156,8 +294,8 @@ class Library {
     
     // Borrowing and returning
     public boolean borrowBook(String memberId, String isbn) {
-        Member member = members.get(memberId);
-        Book book = books.get(isbn);
+        Member member = findMember(memberId);
+        Book book = findBook(isbn);
         
         if (member == null) {
             System.out.println("Member not found");
@@ -180,22 +318,34 @@ class Library {
         }
         
         book.setAvailable(false);
+        genreDateIndex.updateAvailability(book);
         member.borrowBook(book);
+        if (store != null) {
+            store.setBookAvailable(isbn, false);
+            store.putMember(member);
+        }
         String transaction = member.getName() + " borrowed " + book.getTitle();
         addTransaction(transaction);
+        activityListeners.forEach(listener -> listener.onBorrow(member, book));
         System.out.println("✅ " + transaction);
         return true;
     }
     
     public boolean returnBook(String memberId, String isbn) {
-        Member member = members.get(memberId);
-        Book book = books.get(isbn);
+        Member member = findMember(memberId);
+        Book book = findBook(isbn);
         
         if (member != null && book != null && !book.isAvailable()) {
             if (member.returnBook(book)) {
                 book.setAvailable(true);
+                genreDateIndex.updateAvailability(book);
+                if (store != null) {
+                    store.setBookAvailable(isbn, true);
+                    store.putMember(member);
+                }
                 String transaction = member.getName() + " returned " + book.getTitle();
                 addTransaction(transaction);
+                activityListeners.forEach(listener -> listener.onReturn(member, book));
                 System.out.println("✅ " + transaction);
                 return true;
             }
@@ -207,18 +357,27 @@ class Library {
     
     // Search functionality
     public List<Book> searchBooksByTitle(String title) {
+        loadStore();
         return books.values().stream()
             .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
             .toList();
     }
     
     public List<Book> searchBooksByAuthor(String author) {
+        loadStore();
         return books.values().stream()
             .filter(book -> book.getAuthor().toLowerCase().contains(author.toLowerCase()))
             .toList();
     }
     
+    // Indexed lookup, e.g. "Science Fiction published 1990-2000, available only"
+    public List<Book> searchBooksByGenreAndDate(String genre, LocalDate from, LocalDate to, boolean availableOnly) {
+        loadStore();
+        return genreDateIndex.query(genre, from, to, availableOnly);
+    }
+    
     public List<Book> getAvailableBooks() {
+        loadStore();
         return books.values().stream()
             .filter(Book::isAvailable)
             .toList();
@@ -236,6 +395,7 @@ class Library {
     }
     
     public void displayAllMembers() {
+        loadStore();
         System.out.println("\n👥 Library Members (" + members.size() + "):");
         members.values().forEach(member -> {
             System.out.println("• " + member.getName() + " (ID: " + member.getMemberId() + 
@@ -256,6 +416,7 @@ class Library {
     
     // Statistics
     public void displayStatistics() {
+        loadStore();
         int totalBooks = books.size();
         int availableBooks = (int) books.values().stream().filter(Book::isAvailable).count();
         int borrowedBooks = totalBooks - availableBooks;
@@ -268,6 +429,77 @@ class Library {
         System.out.println("Total Transactions: " + transactionHistory.size());
     }
     
+    // Cached book, else the stored record (cached from then on), else null
+    private Book findBook(String isbn) {
+        Book book = books.get(isbn);
+        if (book == null && !storeFullyLoaded) {
+            book = store.getBook(isbn);
+            if (book != null) {
+                cacheBook(book);
+            }
+        }
+        return book;
+    }
+    
+    private Member findMember(String memberId) {
+        Member member = members.get(memberId);
+        if (member == null && !storeFullyLoaded) {
+            Member stored = store.getMember(memberId);
+            if (stored != null) {
+                member = cacheMember(stored);
+            }
+        }
+        return member;
+    }
+    
+    // Bring every stored book and member into memory, once, for operations that scan them all
+    private void loadStore() {
+        if (storeFullyLoaded) {
+            return;
+        }
+        store.forEachBook(book -> {
+            if (!books.containsKey(book.getIsbn())) {
+                cacheBook(book);
+            }
+        });
+        store.forEachMember(stored -> {
+            if (!members.containsKey(stored.getMemberId())) {
+                cacheMember(stored);
+            }
+        });
+        storeFullyLoaded = true;
+    }
+    
+    private void cacheBook(Book book) {
+        books.put(book.getIsbn(), book);
+        genreDateIndex.add(book);
+    }
+    
+    // Point loans at this library's Book objects, not the store's copies
+    private Member cacheMember(Member stored) {
+        Member member = new Member(stored.getMemberId(), stored.getName(),
+            stored.getEmail(), stored.getMembershipDate());
+        for (Book borrowed : stored.getBorrowedBooks()) {
+            Book book = findBook(borrowed.getIsbn());
+            if (book != null) {
+                member.borrowBook(book);
+            }
+        }
+        members.put(member.getMemberId(), member);
+        return member;
+    }
+    
+    private void insertBook(Book book) {
+        Book previous = books.put(book.getIsbn(), book);
+        if (previous != null) {
+            genreDateIndex.remove(previous);
+        }
+        genreDateIndex.add(book);
+        if (store != null) {
+            store.putBook(book);
+        }
+    }
+    
     private void addTransaction(String transaction) {
         String timestamp = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
         transactionHistory.add("[" + timestamp + "] " + transaction);
@@ -0,0 +1,189 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// NewsHistory.java - Bounded message history for NewsSubscriber
+// The newest messages sit uncompressed in a fixed ring. Messages that fall out
+// of the ring are grouped into blocks and deflated; the oldest blocks are
+// discarded once the compressed budget is exceeded. Blocks are only inflated
+// when a caller pages back into them. Null messages are kept as null (encoded with
+// length -1 inside a block).
+class NewsHistory {
+    private static final int NULL_LENGTH = -1;
+
+    private final String[] recent;
+    private int recentStart;
+    private int recentCount;
+
+    private final int blockSize;
+    private final long maxCompressedBytes;
+    private final List<String> pending;
+    private final ArrayDeque<CompressedBlock> blocks = new ArrayDeque<>();
+    private long compressedBytes;
+    private int archivedCount;
+    private long discardedCount;
+
+    // Last block inflated, kept so paging through it does not decode twice
+    private CompressedBlock cachedBlock;
+    private String[] cachedEntries;
+
+    private static class CompressedBlock {
+        final byte[] data;
+        final int count;
+
+        CompressedBlock(byte[] data, int count) {
+            this.data = data;
+            this.count = count;
+        }
+    }
+
+    public NewsHistory(int recentCapacity, int blockSize, long maxCompressedBytes) {
+        if (recentCapacity <= 0 || blockSize <= 0 || maxCompressedBytes < 0) {
+            throw new IllegalArgumentException("Invalid history limits");
+        }
+        this.recent = new String[recentCapacity];
+        this.blockSize = blockSize;
+        this.maxCompressedBytes = maxCompressedBytes;
+        this.pending = new ArrayList<>(blockSize);
+    }
+
+    public synchronized void add(String message) {
+        if (recentCount < recent.length) {
+            recent[(recentStart + recentCount) % recent.length] = message;
+            recentCount++;
+            return;
+        }
+        String oldest = recent[recentStart];
+        recent[recentStart] = message;
+        recentStart = (recentStart + 1) % recent.length;
+        archive(oldest);
+    }
+
+    // Number of messages still retrievable
+    public synchronized int size() {
+        return archivedCount + pending.size() + recentCount;
+    }
+
+    // Messages dropped because the compressed budget was exceeded
+    public synchronized long getDiscardedCount() {
+        return discardedCount;
+    }
+
+    public synchronized long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    // Retained messages in [from, to), where 0 is the oldest retained message
+    public synchronized List<String> range(int from, int to) {
+        int end = Math.min(to, size());
+        List<String> result = new ArrayList<>(Math.max(0, end - from));
+        int offset = 0;
+        for (CompressedBlock block : blocks) {
+            if (offset >= end) {
+                return result;
+            }
+            if (offset + block.count > from) {
+                String[] entries = inflate(block);
+                for (int i = Math.max(0, from - offset); i < block.count && offset + i < end; i++) {
+                    result.add(entries[i]);
+                }
+            }
+            offset += block.count;
+        }
+        for (int i = 0; i < pending.size(); i++, offset++) {
+            if (offset >= from && offset < end) {
+                result.add(pending.get(i));
+            }
+        }
+        for (int i = 0; i < recentCount; i++, offset++) {
+            if (offset >= from && offset < end) {
+                result.add(recent[(recentStart + i) % recent.length]);
+            }
+        }
+        return result;
+    }
+
+    // Page 0 holds the newest pageSize messages, page 1 the ones before them, and so on
+    public synchronized List<String> page(int pageIndex, int pageSize) {
+        int end = size() - pageIndex * pageSize;
+        return end <= 0 ? new ArrayList<>() : range(Math.max(0, end - pageSize), end);
+    }
+
+    private void archive(String message) {
+        pending.add(message);
+        if (pending.size() < blockSize) {
+            return;
+        }
+        CompressedBlock block = deflate(pending);
+        pending.clear();
+        blocks.addLast(block);
+        compressedBytes += block.data.length;
+        archivedCount += block.count;
+
+        while (compressedBytes > maxCompressedBytes && !blocks.isEmpty()) {
+            CompressedBlock evicted = blocks.removeFirst();
+            compressedBytes -= evicted.data.length;
+            archivedCount -= evicted.count;
+            discardedCount += evicted.count;
+            if (evicted == cachedBlock) {
+                cachedBlock = null;
+                cachedEntries = null;
+            }
+        }
+    }
+
+    private static CompressedBlock deflate(List<String> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            for (String message : messages) {
+                if (message == null) {
+                    out.writeInt(NULL_LENGTH);
+                    continue;
+                }
+                byte[] utf8 = message.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CompressedBlock(bytes.toByteArray(), messages.size());
+    }
+
+    private String[] inflate(CompressedBlock block) {
+        if (block == cachedBlock) {
+            return cachedEntries;
+        }
+        String[] entries = new String[block.count];
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(block.data)))) {
+            for (int i = 0; i < block.count; i++) {
+                int length = in.readInt();
+                if (length == NULL_LENGTH) {
+                    continue; // entries[i] stays null
+                }
+                byte[] utf8 = new byte[length];
+                in.readFully(utf8);
+                entries[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cachedBlock = block;
+        cachedEntries = entries;
+        return entries;
+    }
+
+    // Self-check: null messages survive being archived into a compressed block
+    public static void main(String[] args) {
+        NewsHistory history = new NewsHistory(2, 2, 1024);
+        List<String> sent = Arrays.asList("first", null, "third", null, "fifth");
+        sent.forEach(history::add);
+        List<String> kept = history.range(0, history.size());
+        System.out.println(kept.equals(sent)
+            ? "✅ Null messages round-trip through archiving: " + kept
+            : "❌ Expected " + sent + " but got " + kept);
+    }
+}
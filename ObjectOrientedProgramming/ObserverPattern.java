@@ -1,4 +1,7 @@
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 // Observer Pattern Implementation
 
@@ -9,30 +12,134 @@ interface Observer {
 }
 
 // Subject class (Observable)
+// Observers live in a copy-on-write array: notifyObservers iterates a stable snapshot
+// without locking, while subscription changes serialize only among themselves.
 class Subject {
-    private List<Observer> observers = new ArrayList<>();
-    private String state;
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+    private final Object registryLock = new Object();
+    private volatile String state;
+    private volatile AsyncDispatcher dispatcher; // null means synchronous delivery
+    // Publishing shares the read lock; switching dispatch modes takes the write lock, so
+    // synchronous and asynchronous deliveries never run at the same time
+    private final ReentrantReadWriteLock dispatchLock = new ReentrantReadWriteLock();
+    private volatile SubjectEventLog eventLog;   // null means state changes are not persisted
+    
+    // Append every published state to a durable log so late or restarted
+    // subscribers can replay it with a LogCursor
+    public void attachEventLog(SubjectEventLog log) {
+        this.eventLog = log;
+    }
+    
+    // Deliver updates from a few worker threads reading one shared ring buffer
+    public synchronized void enableAsyncDispatch(int bufferCapacity, OverflowPolicy policy) {
+        if (dispatcher != null) {
+            throw new IllegalStateException("Async dispatch is already enabled");
+        }
+        AsyncDispatcher newDispatcher = new AsyncDispatcher(bufferCapacity, policy);
+        dispatchLock.writeLock().lock();
+        try {
+            synchronized (registryLock) {
+                observers.forEach(newDispatcher::register);
+                dispatcher = newDispatcher;
+            }
+        } finally {
+            dispatchLock.writeLock().unlock();
+        }
+    }
+    
+    // Switch back to synchronous delivery after draining queued updates. Publishers wait
+    // until the drain is over, so their updates arrive after the queued ones. Updates
+    // still queued when the timeout runs out are not delivered and are reported.
+    public synchronized void disableAsyncDispatch(long timeout, TimeUnit unit) throws InterruptedException {
+        dispatchLock.writeLock().lock();
+        try {
+            AsyncDispatcher current;
+            synchronized (registryLock) {
+                current = dispatcher;
+                dispatcher = null;
+            }
+            if (current != null && !current.shutdown(timeout, unit)) {
+                for (DispatchMetrics metrics : current.getMetrics()) {
+                    if (metrics.getLag() > 0) {
+                        System.out.println("⚠️ " + metrics.getObserverName() + ": " + metrics.getLag()
+                            + " queued updates were not delivered before the timeout");
+                    }
+                }
+            }
+        } finally {
+            dispatchLock.writeLock().unlock();
+        }
+    }
+    
+    public List<DispatchMetrics> getDispatchMetrics() {
+        AsyncDispatcher current = dispatcher;
+        return current == null ? new ArrayList<>() : current.getMetrics();
+    }
     
     public void addObserver(Observer observer) {
-        observers.add(observer);
+        synchronized (registryLock) {
+            observers.add(observer);
+            if (dispatcher != null) {
+                dispatcher.register(observer);
+            }
+        }
         System.out.println(observer.getName() + " subscribed to notifications");
     }
     
+    // Registers many observers with a single array copy
+    public void addObservers(Collection<? extends Observer> newObservers) {
+        synchronized (registryLock) {
+            observers.addAll(newObservers);
+            if (dispatcher != null) {
+                newObservers.forEach(dispatcher::register);
+            }
+        }
+        System.out.println(newObservers.size() + " observers subscribed to notifications");
+    }
+    
     public void removeObserver(Observer observer) {
-        observers.remove(observer);
+        synchronized (registryLock) {
+            observers.remove(observer);
+            if (dispatcher != null) {
+                dispatcher.unregister(observer);
+            }
+        }
         System.out.println(observer.getName() + " unsubscribed from notifications");
     }
     
+    // Re-sends the current state; it is not logged again, since setState already did
     public void notifyObservers() {
-        System.out.println("Notifying " + observers.size() + " subscribers:");
-        for (Observer observer : observers) {
-            observer.update(state);
-        }
+        publish(state);
     }
     
     public void setState(String state) {
         this.state = state;
-        notifyObservers();
+        SubjectEventLog log = eventLog;
+        if (log != null) {
+            log.append(state);
+        }
+        publish(state);
+    }
+    
+    private void publish(String message) {
+        dispatchLock.readLock().lock();
+        try {
+            AsyncDispatcher current = dispatcher;
+            if (current != null) {
+                // Under the read lock the dispatcher cannot be shutting down, so a refusal
+                // means this thread was interrupted while waiting for room
+                if (!current.publish(message)) {
+                    System.out.println("⚠️ Update not queued: publisher was interrupted");
+                }
+                return;
+            }
+            System.out.println("Notifying " + observers.size() + " subscribers:");
+            for (Observer observer : observers) {
+                observer.update(message);
+            }
+        } finally {
+            dispatchLock.readLock().unlock();
+        }
     }
     
     public String getState() {
@@ -42,12 +149,22 @@ class Subject {
 
 // Concrete Observer implementation
 class NewsSubscriber implements Observer {
+    private static final int DEFAULT_RECENT_CAPACITY = 100;
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+    private static final long DEFAULT_MAX_COMPRESSED_BYTES = 64 * 1024;
+    
     private String name;
-    private List<String> receivedNews;
+    private NewsHistory receivedNews;
     
     public NewsSubscriber(String name) {
+        this(name, DEFAULT_RECENT_CAPACITY, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_COMPRESSED_BYTES);
+    }
+    
+    // recentCapacity messages stay uncompressed; older ones are kept in compressed
+    // blocks of blockSize messages until maxCompressedBytes is used up
+    public NewsSubscriber(String name, int recentCapacity, int blockSize, long maxCompressedBytes) {
         this.name = name;
-        this.receivedNews = new ArrayList<>();
+        this.receivedNews = new NewsHistory(recentCapacity, blockSize, maxCompressedBytes);
     }
     
     @Override
@@ -61,14 +178,42 @@ class NewsSubscriber implements Observer {
         return name;
     }
     
+    // All retained news, oldest first (inflates every compressed block)
     public List<String> getReceivedNews() {
-        return new ArrayList<>(receivedNews);
+        return receivedNews.range(0, receivedNews.size());
     }
     
+    public List<String> getRecentNews(int count) {
+        return receivedNews.page(0, count);
+    }
+    
+    public int getNewsCount() {
+        return receivedNews.size();
+    }
+    
+    // Every retained item, oldest first; use the paged overload for long histories
     public void showNewsHistory() {
         System.out.println("\n" + name + "'s news history:");
-        for (int i = 0; i < receivedNews.size(); i++) {
-            System.out.println((i + 1) + ". " + receivedNews.get(i));
+        long firstNumber = receivedNews.getDiscardedCount() + 1;
+        List<String> news = getReceivedNews();
+        for (int i = 0; i < news.size(); i++) {
+            System.out.println((firstNumber + i) + ". " + news.get(i));
+        }
+    }
+    
+    // Page 0 is the newest news; higher pages go further back in time
+    public void showNewsHistory(int page, int pageSize) {
+        System.out.println("\n" + name + "'s news history (page " + (page + 1) + "):");
+        int total = receivedNews.size();
+        int end = total - page * pageSize;
+        if (end <= 0) {
+            System.out.println("No older news");
+            return;
+        }
+        long firstNumber = receivedNews.getDiscardedCount() + Math.max(0, end - pageSize) + 1;
+        List<String> news = receivedNews.page(page, pageSize);
+        for (int i = 0; i < news.size(); i++) {
+            System.out.println((firstNumber + i) + ". " + news.get(i));
         }
     }
 }
@@ -77,19 +222,44 @@ class NewsSubscriber implements Observer {
 class EmailSubscriber implements Observer {
     private String email;
     private boolean isActive;
+    private DigestSender digestSender;
+    private volatile DigestBatcher digest; // null sends one email per update
     
     public EmailSubscriber(String email) {
         this.email = email;
         this.isActive = true;
     }
     
+    // Collect updates into digests delivered by a shared DigestSender
+    public EmailSubscriber(String email, DigestSender sender) {
+        this(email);
+        this.digestSender = sender;
+        this.digest = sender.newBatcher(email);
+    }
+    
+    // Never throws into the subject: once the digest sender is closed,
+    // updates go out as individual emails instead
     @Override
     public void update(String message) {
-        if (isActive) {
+        if (!isActive) {
+            return;
+        }
+        DigestBatcher batcher = digest;
+        if (batcher == null || !batcher.tryAdd(message)) {
             System.out.println("📧 Email sent to " + email + ": " + message);
         }
     }
     
+    // Flush the open digest and detach from the sender; call after removeObserver
+    // so the sender stops tracking this subscriber
+    public void stopDigest() {
+        DigestBatcher batcher = digest;
+        if (batcher != null) {
+            digest = null;
+            digestSender.removeBatcher(batcher);
+        }
+    }
+    
     @Override
     public String getName() {
         return "Email: " + email;
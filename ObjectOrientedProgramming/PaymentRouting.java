@@ -0,0 +1,256 @@
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+// Payment Routing - Latency-aware adaptive strategy selection for PaymentContext
+// Every registered PaymentStrategy keeps an exponentially weighted moving average
+// (EWMA) of its latency and error rate. A payment goes to the strategy with the lowest
+// expected time to a successful charge whose circuit is closed; a small share of traffic
+// probes the others so their numbers stay current. A strategy that throws
+// PaymentNotChargedException guarantees nothing was charged, so the payment fails over
+// to the next-best strategy. Any other exception leaves the outcome unknown: it counts
+// as a failure but is rethrown rather than retried elsewhere, which could charge twice.
+// Too many failures open the circuit, and after a cool-down one trial payment decides
+// whether it closes again.
+
+// PaymentNotChargedException.java - Thrown by PaymentStrategy.pay when no money moved
+class PaymentNotChargedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public PaymentNotChargedException(String message) {
+        super(message);
+    }
+
+    public PaymentNotChargedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
+
+// CircuitState.java
+enum CircuitState {
+    CLOSED, OPEN, HALF_OPEN
+}
+
+// StrategyRoute.java - One strategy with its health statistics
+class StrategyRoute {
+    private static final double ALPHA = 0.2;          // weight of the newest sample
+    private static final int MIN_SAMPLES = 5;         // before the error rate can open the circuit
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private static final double NO_SUCCESS_LATENCY_MILLIS = 1_000; // assumed until a first success
+
+    private final String name;
+    private final PaymentStrategy strategy;
+    private final double errorRateThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private double latencyEwmaMillis;
+    private double errorRateEwma;
+    private double worstLatencyMillis;               // slowest attempt seen, failed or not
+    private long samples;
+    private long failures;
+    private int consecutiveFailures;
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long lastUsedAt;
+
+    StrategyRoute(String name, PaymentStrategy strategy, double errorRateThreshold, long openNanos, LongSupplier clock) {
+        this.name = name;
+        this.strategy = strategy;
+        this.errorRateThreshold = errorRateThreshold;
+        this.openNanos = openNanos;
+        this.clock = clock;
+    }
+
+    public String getName() { return name; }
+    PaymentStrategy getStrategy() { return strategy; }
+
+    public synchronized double getLatencyMillis() { return latencyEwmaMillis; }
+    public synchronized double getErrorRate() { return errorRateEwma; }
+    public synchronized long getSamples() { return samples; }
+    public synchronized long getFailures() { return failures; }
+
+    // Expected milliseconds until a success if failed attempts are retried here: the
+    // success latency scaled by 1 / (1 - error rate). A strategy that has only failed has
+    // no success latency yet, so its slowest attempt is used, but never less than
+    // NO_SUCCESS_LATENCY_MILLIS, or fast failures would make it look cheap.
+    public synchronized double getExpectedCostMillis() {
+        double latency = failures > 0 && samples == failures
+            ? Math.max(worstLatencyMillis, NO_SUCCESS_LATENCY_MILLIS)
+            : latencyEwmaMillis;
+        return latency / Math.max(0.01, 1 - errorRateEwma);
+    }
+    synchronized long getLastUsedAt() { return lastUsedAt; }
+
+    public synchronized CircuitState getState() {
+        if (state == CircuitState.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            state = CircuitState.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return state;
+    }
+
+    // Closed circuits always accept; a half-open one lets a single trial through
+    synchronized boolean tryAdmit() {
+        CircuitState current = getState();
+        if (current == CircuitState.CLOSED) {
+            return true;
+        }
+        if (current == CircuitState.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void recordSuccess(long latencyNanos) {
+        record(latencyNanos, false);
+        consecutiveFailures = 0;
+        if (state == CircuitState.HALF_OPEN) {
+            state = CircuitState.CLOSED;
+            errorRateEwma = 0; // a fresh start; the trial proved the provider is back
+        }
+        trialInFlight = false;
+    }
+
+    synchronized void recordFailure(long latencyNanos) {
+        record(latencyNanos, true);
+        failures++;
+        consecutiveFailures++;
+        boolean tooManyErrors = samples >= MIN_SAMPLES && errorRateEwma > errorRateThreshold;
+        if (state == CircuitState.HALF_OPEN || tooManyErrors || consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+            state = CircuitState.OPEN;
+            openedAt = clock.getAsLong();
+        }
+        trialInFlight = false;
+    }
+
+    // Fast failures must not make a broken provider look quick, so only successes count for latency
+    private void record(long latencyNanos, boolean failed) {
+        double latencyMillis = latencyNanos / 1_000_000.0;
+        worstLatencyMillis = Math.max(worstLatencyMillis, latencyMillis);
+        if (!failed) {
+            if (samples == failures) {
+                latencyEwmaMillis = latencyMillis; // first success
+            } else {
+                latencyEwmaMillis += ALPHA * (latencyMillis - latencyEwmaMillis);
+            }
+        }
+        errorRateEwma += ALPHA * ((failed ? 1 : 0) - errorRateEwma);
+        samples++;
+        lastUsedAt = clock.getAsLong();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%-12s %-9s latency=%.1fms errors=%.0f%% calls=%d failed=%d",
+            name, getState(), latencyEwmaMillis, errorRateEwma * 100, samples, failures);
+    }
+}
+
+// AdaptivePaymentRouter.java
+class AdaptivePaymentRouter {
+    private final List<StrategyRoute> routes = new CopyOnWriteArrayList<>();
+    private final double explorationRate;
+    private final double errorRateThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    public AdaptivePaymentRouter() {
+        this(0.05, 0.5, 5_000, System::nanoTime);
+    }
+
+    // explorationRate: share of payments sent to a non-best strategy to refresh its stats
+    public AdaptivePaymentRouter(double explorationRate, double errorRateThreshold,
+                                 long openMillis, LongSupplier clock) {
+        this.explorationRate = explorationRate;
+        this.errorRateThreshold = errorRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    public void register(String name, PaymentStrategy strategy) {
+        for (StrategyRoute route : routes) {
+            if (route.getName().equals(name)) {
+                throw new IllegalArgumentException("Strategy already registered: " + name);
+            }
+        }
+        routes.add(new StrategyRoute(name, strategy, errorRateThreshold, openNanos, clock));
+    }
+
+    public boolean unregister(String name) {
+        return routes.removeIf(route -> route.getName().equals(name));
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    public List<StrategyRoute> getRoutes() {
+        return Collections.unmodifiableList(routes);
+    }
+
+    // Returns the name of the strategy that took the payment, or null if every one
+    // declined without charging. Exceptions other than PaymentNotChargedException are
+    // rethrown: the payment may have gone through, so it is not sent anywhere else.
+    public String route(double amount) {
+        Set<StrategyRoute> tried = new HashSet<>();
+        StrategyRoute route;
+        while ((route = choose(tried)) != null) {
+            tried.add(route);
+            long start = clock.getAsLong();
+            try {
+                route.getStrategy().pay(amount);
+                route.recordSuccess(clock.getAsLong() - start);
+                return route.getName();
+            } catch (PaymentNotChargedException e) {
+                route.recordFailure(clock.getAsLong() - start);
+                System.out.println("⚠️ " + route.getName() + " failed (" + e.getMessage() + "), trying next strategy");
+            } catch (RuntimeException e) {
+                route.recordFailure(clock.getAsLong() - start);
+                throw e;
+            }
+        }
+        return null;
+    }
+
+    public void displayStats() {
+        System.out.println("\n🧭 Payment routes:");
+        routes.forEach(route -> System.out.println("• " + route));
+    }
+
+    // Admissible strategy with the lowest expected cost, so a fast but flaky provider
+    // does not beat a slower reliable one (untried ones report 0 ms, so they go first);
+    // occasionally the least recently used one instead
+    private StrategyRoute choose(Set<StrategyRoute> exclude) {
+        // Snapshot costs so concurrent updates cannot upset the sort
+        Map<StrategyRoute, Double> cost = new HashMap<>();
+        List<StrategyRoute> candidates = new ArrayList<>();
+        for (StrategyRoute route : routes) {
+            if (!exclude.contains(route) && route.getState() != CircuitState.OPEN) {
+                candidates.add(route);
+                cost.put(route, route.getExpectedCostMillis());
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(cost::get));
+
+        if (candidates.size() > 1 && ThreadLocalRandom.current().nextDouble() < explorationRate) {
+            StrategyRoute stalest = candidates.get(0);
+            for (StrategyRoute route : candidates) {
+                if (route.getLastUsedAt() < stalest.getLastUsedAt()) {
+                    stalest = route;
+                }
+            }
+            candidates.remove(stalest);
+            candidates.add(0, stalest);
+        }
+        for (StrategyRoute route : candidates) {
+            if (route.tryAdmit()) {
+                return route;
+            }
+        }
+        return null;
+    }
+}
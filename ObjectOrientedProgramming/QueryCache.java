@@ -0,0 +1,597 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+// Query Cache - Result cache in front of the database for read-heavy callers
+// Results are keyed by normalized SQL plus parameters and tagged with the tables the
+// query reads. The cache is bounded by estimated bytes; when full, a new result only
+// displaces the least recently used one if a frequency sketch says it is requested
+// more often (TinyLFU admission), so one-off queries cannot flush the hot set.
+// Concurrent misses for one key share a single load, and invalidating a table drops
+// every result that read it, including loads still in flight.
+
+// QueryKey.java - Normalized SQL and parameters
+final class QueryKey {
+    private final String sql;
+    private final List<Object> params;
+    private final int hash;
+
+    public QueryKey(String sql, Object... params) {
+        this.sql = normalize(sql);
+        this.params = Collections.unmodifiableList(Arrays.asList(params.clone())); // nulls allowed
+        this.hash = 31 * this.sql.hashCode() + this.params.hashCode();
+    }
+
+    public String getSql() { return sql; }
+    public List<Object> getParams() { return params; }
+
+    // Lower-case and collapse whitespace outside string literals; drop a trailing ';'
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        boolean inLiteral = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (!inLiteral && Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            out.append(inLiteral || c == '\'' ? c : Character.toLowerCase(c));
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ';' || out.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString();
+    }
+
+    // Tables named after FROM, JOIN, INTO or UPDATE in a normalized statement
+    static Set<String> tablesOf(String normalizedSql) {
+        Set<String> tables = new LinkedHashSet<>();
+        String[] tokens = normalizedSql.split("[\\s,()]+");
+        for (int i = 0; i < tokens.length - 1; i++) {
+            String token = tokens[i];
+            if (token.equals("from") || token.equals("join") || token.equals("into") || token.equals("update")) {
+                String table = tokens[i + 1].replace("\"", "").replace("`", "");
+                if (!table.isEmpty() && !table.equals("select")) {
+                    tables.add(table);
+                }
+            }
+        }
+        return tables;
+    }
+
+    long estimateBytes() {
+        return 48 + 2L * sql.length() + 16L * params.size();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof QueryKey)) {
+            return false;
+        }
+        QueryKey key = (QueryKey) other;
+        return hash == key.hash && sql.equals(key.sql) && params.equals(key.params);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + params;
+    }
+}
+
+// QueryLoader.java - Runs the query on a cache miss
+interface QueryLoader<V> {
+    V load() throws Exception;
+}
+
+// FrequencySketch.java - Count-min sketch of recent request frequency
+// Four rows of small saturating counters; every counter is halved once enough
+// requests have been recorded, so old popularity fades.
+final class FrequencySketch {
+    private static final int ROWS = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+        0x97CB3127L, 0xB5C5B7A3L, 0xC2B2AE3DL, 0x27D4EB2FL
+    };
+
+    private final byte[][] counters = new byte[ROWS][];
+    private final int mask;
+    private final int resetAfter;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(16, expectedEntries * 4) - 1) << 1;
+        for (int row = 0; row < ROWS; row++) {
+            counters[row] = new byte[width];
+        }
+        mask = width - 1;
+        resetAfter = Math.max(64, expectedEntries * 10);
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < ROWS; row++) {
+            int index = indexOf(hash, row);
+            if (counters[row][index] < MAX_COUNT) {
+                counters[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= resetAfter) {
+            halve();
+        }
+    }
+
+    int frequency(int hash) {
+        int min = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            min = Math.min(min, counters[row][indexOf(hash, row)]);
+        }
+        return min;
+    }
+
+    private int indexOf(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    private void halve() {
+        for (byte[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+        additions /= 2;
+    }
+}
+
+// QueryCacheMetrics.java
+class QueryCacheMetrics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    void recordHit() { hits.incrementAndGet(); }
+    void recordMiss() { misses.incrementAndGet(); }
+    void recordSharedLoad() { sharedLoads.incrementAndGet(); }
+    void recordLoadFailure() { loadFailures.incrementAndGet(); }
+    void recordEviction() { evictions.incrementAndGet(); }
+    void recordRejection() { rejections.incrementAndGet(); }
+    void recordInvalidations(int count) { invalidations.addAndGet(count); }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getSharedLoads() { return sharedLoads.get(); }
+    public long getLoadFailures() { return loadFailures.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getRejections() { return rejections.get(); }
+    public long getInvalidations() { return invalidations.get(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hitRate=%.1f%%, hits=%d, misses=%d, sharedLoads=%d, evictions=%d, "
+                + "rejected=%d, invalidated=%d, failures=%d",
+            getHitRate() * 100, getHits(), getMisses(), getSharedLoads(), getEvictions(),
+            getRejections(), getInvalidations(), getLoadFailures());
+    }
+}
+
+// QueryResultCache.java - Size-bounded, frequency-aware cache with table invalidation
+// Hits never wait for the policy lock: they are queued and replayed into the sketch and
+// recency list by whichever thread next holds the lock, so popularity is not undercounted.
+class QueryResultCache<V> {
+    private static final int MAX_PENDING_HITS = 1024; // past this a hit waits to drain the queue
+
+    private static final class Entry<V> {
+        final QueryKey key;
+        final V value;
+        final long weight;
+        final Set<String> tables;
+        Entry<V> newer;
+        Entry<V> older;
+
+        Entry(QueryKey key, V value, long weight, Set<String> tables) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.tables = tables;
+        }
+    }
+
+    private final long maxBytes;
+    private final ToLongFunction<V> weigher;
+    private final ConcurrentHashMap<QueryKey, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<QueryKey, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Set<QueryKey>> keysByTable = new HashMap<>();
+    // Tables read by loads still running: {generation, loads}. Invalidation bumps the
+    // generation; a table is dropped when its last load ends, so the map stays small.
+    private final Map<String, long[]> tableGenerations = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final QueryCacheMetrics metrics = new QueryCacheMetrics();
+    private final Queue<Entry<V>> pendingHits = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingHitCount = new AtomicInteger();
+
+    // Guards the recency list, the sketch, the table maps and weightBytes
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private Entry<V> newest;
+    private Entry<V> oldest;
+    private long weightBytes;
+
+    // weigher estimates the bytes a value occupies; expectedEntries sizes the sketch
+    public QueryResultCache(long maxBytes, int expectedEntries, ToLongFunction<V> weigher) {
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    public V get(QueryKey key, QueryLoader<V> loader) throws Exception {
+        return get(key, QueryKey.tablesOf(key.getSql()), loader);
+    }
+
+    public V get(QueryKey key, Set<String> tables, QueryLoader<V> loader) throws Exception {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            metrics.recordHit();
+            touch(entry);
+            return entry.value;
+        }
+        metrics.recordMiss();
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            metrics.recordSharedLoad();
+            return await(running);
+        }
+        try {
+            // A load may have finished between the lookup and claiming the key
+            entry = entries.get(key);
+            if (entry != null) {
+                load.complete(entry.value);
+                return entry.value;
+            }
+            long[] generations = beginLoad(tables);
+            try {
+                V value = loader.load();
+                admit(key, value, tables, generations);
+                load.complete(value);
+                return value;
+            } finally {
+                endLoad(tables);
+            }
+        } catch (Exception e) {
+            metrics.recordLoadFailure();
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    public V getIfPresent(QueryKey key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    // Drop every cached result that read the table, and any load of it still running
+    public int invalidateTable(String table) {
+        String tag = table.toLowerCase(Locale.ROOT);
+        policyLock.lock();
+        try {
+            drainHits();
+            long[] loading = tableGenerations.get(tag);
+            if (loading != null) {
+                loading[0]++;
+            }
+            Set<QueryKey> keys = keysByTable.remove(tag);
+            if (keys == null) {
+                return 0;
+            }
+            int removed = 0;
+            for (QueryKey key : keys) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null) {
+                    unlink(entry);
+                    removed++;
+                }
+            }
+            metrics.recordInvalidations(removed);
+            return removed;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            for (long[] loading : tableGenerations.values()) {
+                loading[0]++;
+            }
+            metrics.recordInvalidations(entries.size());
+            entries.clear();
+            keysByTable.clear();
+            newest = oldest = null;
+            weightBytes = 0;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() { return entries.size(); }
+    public long getMaxBytes() { return maxBytes; }
+    public QueryCacheMetrics getMetrics() { return metrics; }
+
+    public long getWeightBytes() {
+        policyLock.lock();
+        try {
+            return weightBytes;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Queue the hit, then replay the queue if the lock is free (or the queue is too long)
+    private void touch(Entry<V> entry) {
+        pendingHits.add(entry);
+        int pending = pendingHitCount.incrementAndGet();
+        if (pending >= MAX_PENDING_HITS) {
+            policyLock.lock();
+        } else if (!policyLock.tryLock()) {
+            return; // the lock holder, or a later hit, replays it
+        }
+        try {
+            drainHits();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Caller holds policyLock
+    private void drainHits() {
+        Entry<V> entry;
+        while ((entry = pendingHits.poll()) != null) {
+            pendingHitCount.decrementAndGet();
+            sketch.increment(entry.key.hashCode());
+            if (entries.get(entry.key) == entry && entry != newest) {
+                detach(entry);
+                attachNewest(entry);
+            }
+        }
+    }
+
+    private void admit(QueryKey key, V value, Set<String> tables, long[] generations) {
+        long weight = key.estimateBytes() + weigher.applyAsLong(value);
+        policyLock.lock();
+        try {
+            drainHits(); // admission compares frequencies, so they must be current
+            sketch.increment(key.hashCode());
+            if (!Arrays.equals(generations, generationsOf(tables))) {
+                return; // a table changed while loading; the result may already be stale
+            }
+            if (weight > maxBytes) {
+                metrics.recordRejection();
+                return;
+            }
+            // Pick victims first and unlink nothing until the candidate has won, so a
+            // rejected refresh keeps the entry it would have replaced
+            Entry<V> previous = entries.get(key);
+            long freed = previous == null ? 0 : previous.weight;
+            int candidateFrequency = sketch.frequency(key.hashCode());
+            List<Entry<V>> victims = new ArrayList<>();
+            for (Entry<V> victim = oldest; weightBytes - freed + weight > maxBytes; victim = victim.newer) {
+                if (victim == previous) {
+                    continue;
+                }
+                if (candidateFrequency <= sketch.frequency(victim.key.hashCode())) {
+                    metrics.recordRejection();
+                    return;
+                }
+                victims.add(victim);
+                freed += victim.weight;
+            }
+            if (previous != null) {
+                unlink(previous);
+            }
+            for (Entry<V> victim : victims) {
+                unlink(victim);
+                metrics.recordEviction();
+            }
+
+            Set<String> tags = new HashSet<>();
+            for (String table : tables) {
+                tags.add(table.toLowerCase(Locale.ROOT));
+            }
+            Entry<V> entry = new Entry<>(key, value, weight, tags);
+            entries.put(key, entry);
+            attachNewest(entry);
+            weightBytes += weight;
+            for (String tag : tags) {
+                keysByTable.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Caller holds policyLock
+    private void unlink(Entry<V> entry) {
+        entries.remove(entry.key, entry);
+        detach(entry);
+        weightBytes -= entry.weight;
+        for (String tag : entry.tables) {
+            Set<QueryKey> keys = keysByTable.get(tag);
+            if (keys != null) {
+                keys.remove(entry.key);
+                if (keys.isEmpty()) {
+                    keysByTable.remove(tag);
+                }
+            }
+        }
+    }
+
+    private void detach(Entry<V> entry) {
+        if (entry.newer != null) {
+            entry.newer.older = entry.older;
+        } else if (newest == entry) {
+            newest = entry.older;
+        }
+        if (entry.older != null) {
+            entry.older.newer = entry.newer;
+        } else if (oldest == entry) {
+            oldest = entry.newer;
+        }
+        entry.newer = entry.older = null;
+    }
+
+    private void attachNewest(Entry<V> entry) {
+        entry.older = newest;
+        if (newest != null) {
+            newest.newer = entry;
+        }
+        newest = entry;
+        if (oldest == null) {
+            oldest = entry;
+        }
+    }
+
+    // Register a load of these tables and return their current generations
+    private long[] beginLoad(Set<String> tables) {
+        policyLock.lock();
+        try {
+            long[] generations = new long[tables.size()];
+            int i = 0;
+            for (String table : tables) {
+                long[] loading = tableGenerations.computeIfAbsent(table.toLowerCase(Locale.ROOT), t -> new long[2]);
+                loading[1]++;
+                generations[i++] = loading[0];
+            }
+            return generations;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void endLoad(Set<String> tables) {
+        policyLock.lock();
+        try {
+            for (String table : tables) {
+                String tag = table.toLowerCase(Locale.ROOT);
+                long[] loading = tableGenerations.get(tag);
+                if (loading != null && --loading[1] == 0) {
+                    tableGenerations.remove(tag);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Caller holds policyLock and has a load of these tables registered
+    private long[] generationsOf(Set<String> tables) {
+        long[] generations = new long[tables.size()];
+        int i = 0;
+        for (String table : tables) {
+            generations[i++] = tableGenerations.get(table.toLowerCase(Locale.ROOT))[0];
+        }
+        return generations;
+    }
+
+    private static <V> V await(CompletableFuture<V> running) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
+
+// CachingQueryExecutor.java - Pooled connections with a result cache in front
+// Writes go straight to the database and then invalidate every table they touch.
+class CachingQueryExecutor {
+    private final ConnectionPool pool;
+    private final QueryResultCache<String> cache;
+
+    public CachingQueryExecutor(ConnectionPool pool, long maxCacheBytes) {
+        this.pool = pool;
+        this.cache = new QueryResultCache<>(maxCacheBytes, 10_000, result -> 40 + 2L * result.length());
+    }
+
+    public String query(String sql, Object... params) throws Exception {
+        QueryKey key = new QueryKey(sql, params);
+        return cache.get(key, () -> run(sql, params));
+    }
+
+    public String update(String sql, Object... params) throws Exception {
+        String result = run(sql, params);
+        for (String table : QueryKey.tablesOf(QueryKey.normalize(sql))) {
+            cache.invalidateTable(table);
+        }
+        return result;
+    }
+
+    public QueryResultCache<String> getCache() {
+        return cache;
+    }
+
+    private String run(String sql, Object... params) throws Exception {
+        try (PooledConnection connection = pool.acquire()) {
+            return connection.execute(bind(sql, params));
+        }
+    }
+
+    // The backend takes plain SQL text, so parameters are inlined as quoted literals
+    private static String bind(String sql, Object... params) {
+        StringBuilder out = new StringBuilder(sql.length() + 16 * params.length);
+        int next = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?' && next < params.length) {
+                Object param = params[next++];
+                if (param == null) {
+                    out.append("NULL");
+                } else if (param instanceof Number || param instanceof Boolean) {
+                    out.append(param);
+                } else {
+                    out.append('\'').append(param.toString().replace("'", "''")).append('\'');
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -1,5 +1,5 @@
-// Shape.java - Abstract class example
-public abstract class Shape {
+// Shape.java - Abstract class example (sealed: Circle and Rectangle are the only subclasses)
+public abstract sealed class Shape permits Circle, Rectangle {
     protected String color;
     
     public Shape(String color) {
@@ -23,7 +23,7 @@ public abstract class Shape {
 }
 
 // Circle.java - Concrete implementation of Shape
-class Circle extends Shape {
+sealed class Circle extends Shape permits AdvancedCircle {
     private double radius;
     
     public Circle(String color, double radius) {
@@ -47,7 +47,7 @@ class Circle extends Shape {
 }
 
 // Rectangle.java - Another concrete implementation of Shape
-class Rectangle extends Shape {
+sealed class Rectangle extends Shape permits AdvancedRectangle {
     private double length;
     private double width;
     
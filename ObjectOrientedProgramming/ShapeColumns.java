@@ -0,0 +1,189 @@
+import java.util.*;
+
+// Shape Columns - Columnar storage and batch kernels for large shape collections
+// Shapes are grouped by kind and their dimensions kept in primitive arrays, so area
+// and perimeter are computed by tight loops over doubles instead of one virtual call
+// per object. The loops are plain counted loops with no branches or calls, which
+// HotSpot's C2 compiler turns into SIMD code. Every kernel uses the same expression
+// as the matching Shape method, so results are bit-for-bit identical.
+
+// ShapeKernels.java - Batch formulas over primitive arrays
+final class ShapeKernels {
+    private ShapeKernels() {}
+
+    // Same as Circle.calculateArea(): Math.PI * radius * radius
+    static void circleAreas(double[] radii, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = Math.PI * radii[i] * radii[i];
+        }
+    }
+
+    // Same as Circle.calculatePerimeter(): 2 * Math.PI * radius
+    static void circlePerimeters(double[] radii, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = 2 * Math.PI * radii[i];
+        }
+    }
+
+    // Same as Rectangle.calculateArea(): length * width
+    static void rectangleAreas(double[] lengths, double[] widths, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = lengths[i] * widths[i];
+        }
+    }
+
+    // Same as Rectangle.calculatePerimeter(): 2 * (length + width)
+    static void rectanglePerimeters(double[] lengths, double[] widths, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = 2 * (lengths[i] + widths[i]);
+        }
+    }
+
+    // Fused totals that skip the per-shape output array
+    static double sumCircleAreas(double[] radii, int count) {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += Math.PI * radii[i] * radii[i];
+        }
+        return total;
+    }
+
+    static double sumRectangleAreas(double[] lengths, double[] widths, int count) {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += lengths[i] * widths[i];
+        }
+        return total;
+    }
+
+    static double sumCirclePerimeters(double[] radii, int count) {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += 2 * Math.PI * radii[i];
+        }
+        return total;
+    }
+
+    static double sumRectanglePerimeters(double[] lengths, double[] widths, int count) {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += 2 * (lengths[i] + widths[i]);
+        }
+        return total;
+    }
+}
+
+// ColumnarShapeStore.java - Circles and rectangles held as dimension columns
+class ColumnarShapeStore {
+    private String[] circleColors;
+    private double[] radii;
+    private int circleCount;
+
+    private String[] rectangleColors;
+    private double[] lengths;
+    private double[] widths;
+    private int rectangleCount;
+
+    public ColumnarShapeStore() {
+        this(16);
+    }
+
+    public ColumnarShapeStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        circleColors = new String[capacity];
+        radii = new double[capacity];
+        rectangleColors = new String[capacity];
+        lengths = new double[capacity];
+        widths = new double[capacity];
+    }
+
+    public static ColumnarShapeStore of(Collection<? extends Shape> shapes) {
+        ColumnarShapeStore store = new ColumnarShapeStore(shapes.size());
+        for (Shape shape : shapes) {
+            store.add(shape);
+        }
+        return store;
+    }
+
+    // Copies the dimensions of a Circle or Rectangle (including their subclasses)
+    public void add(Shape shape) {
+        if (shape instanceof Circle) {
+            Circle circle = (Circle) shape;
+            addCircle(circle.getColor(), circle.getRadius());
+        } else if (shape instanceof Rectangle) {
+            Rectangle rectangle = (Rectangle) shape;
+            addRectangle(rectangle.getColor(), rectangle.getLength(), rectangle.getWidth());
+        } else {
+            throw new IllegalArgumentException("Unsupported shape: " + shape.getClass().getSimpleName());
+        }
+    }
+
+    public void addCircle(String color, double radius) {
+        if (circleCount == radii.length) {
+            int capacity = circleCount * 2;
+            circleColors = Arrays.copyOf(circleColors, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+        }
+        circleColors[circleCount] = color;
+        radii[circleCount] = radius;
+        circleCount++;
+    }
+
+    public void addRectangle(String color, double length, double width) {
+        if (rectangleCount == lengths.length) {
+            int capacity = rectangleCount * 2;
+            rectangleColors = Arrays.copyOf(rectangleColors, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+        }
+        rectangleColors[rectangleCount] = color;
+        lengths[rectangleCount] = length;
+        widths[rectangleCount] = width;
+        rectangleCount++;
+    }
+
+    public int getCircleCount() { return circleCount; }
+    public int getRectangleCount() { return rectangleCount; }
+    public int size() { return circleCount + rectangleCount; }
+
+    public double getRadius(int index) { return radii[Objects.checkIndex(index, circleCount)]; }
+    public String getCircleColor(int index) { return circleColors[Objects.checkIndex(index, circleCount)]; }
+    public double getLength(int index) { return lengths[Objects.checkIndex(index, rectangleCount)]; }
+    public double getWidth(int index) { return widths[Objects.checkIndex(index, rectangleCount)]; }
+    public String getRectangleColor(int index) { return rectangleColors[Objects.checkIndex(index, rectangleCount)]; }
+
+    // Per-shape results, in insertion order within each kind
+    public double[] circleAreas() {
+        double[] out = new double[circleCount];
+        ShapeKernels.circleAreas(radii, circleCount, out);
+        return out;
+    }
+
+    public double[] circlePerimeters() {
+        double[] out = new double[circleCount];
+        ShapeKernels.circlePerimeters(radii, circleCount, out);
+        return out;
+    }
+
+    public double[] rectangleAreas() {
+        double[] out = new double[rectangleCount];
+        ShapeKernels.rectangleAreas(lengths, widths, rectangleCount, out);
+        return out;
+    }
+
+    public double[] rectanglePerimeters() {
+        double[] out = new double[rectangleCount];
+        ShapeKernels.rectanglePerimeters(lengths, widths, rectangleCount, out);
+        return out;
+    }
+
+    public double totalArea() {
+        return ShapeKernels.sumCircleAreas(radii, circleCount)
+            + ShapeKernels.sumRectangleAreas(lengths, widths, rectangleCount);
+    }
+
+    public double totalPerimeter() {
+        return ShapeKernels.sumCirclePerimeters(radii, circleCount)
+            + ShapeKernels.sumRectanglePerimeters(lengths, widths, rectangleCount);
+    }
+}
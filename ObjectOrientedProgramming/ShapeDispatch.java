@@ -0,0 +1,261 @@
+import java.util.*;
+import java.util.function.DoubleSupplier;
+
+// Shape Dispatch - Type-grouped batch processing for the sealed shape hierarchies
+// A loop over a mixed Shape[] or Drawable[] sees four or more receiver classes at
+// one call site, so the JIT falls back to a virtual call it cannot inline. Since
+// Shape and Drawable are sealed, every concrete type is known: the batches below
+// sort elements into one list per concrete class once, and each later pass runs one
+// loop per class, where every call site sees a single type and can be inlined.
+
+// ShapeTotals.java - Summed area and perimeter of a batch
+class ShapeTotals {
+    private final double area;
+    private final double perimeter;
+
+    public ShapeTotals(double area, double perimeter) {
+        this.area = area;
+        this.perimeter = perimeter;
+    }
+
+    public double getArea() { return area; }
+    public double getPerimeter() { return perimeter; }
+
+    @Override
+    public String toString() {
+        return String.format("area=%.2f, perimeter=%.2f", area, perimeter);
+    }
+}
+
+// ShapeBatch.java - Shapes grouped by concrete class
+// Each group is a plain array walked by index, which keeps the hot loops free of
+// iterator and cast overhead.
+class ShapeBatch {
+    private Circle[] circles = new Circle[8];
+    private AdvancedCircle[] advancedCircles = new AdvancedCircle[8];
+    private Rectangle[] rectangles = new Rectangle[8];
+    private AdvancedRectangle[] advancedRectangles = new AdvancedRectangle[8];
+    private int circleCount;
+    private int advancedCircleCount;
+    private int rectangleCount;
+    private int advancedRectangleCount;
+
+    public static ShapeBatch of(Shape... shapes) {
+        return of(Arrays.asList(shapes));
+    }
+
+    public static ShapeBatch of(Collection<? extends Shape> shapes) {
+        ShapeBatch batch = new ShapeBatch();
+        for (Shape shape : shapes) {
+            batch.add(shape);
+        }
+        return batch;
+    }
+
+    // Subclasses are tested first; the sealed hierarchy guarantees nothing else exists
+    public void add(Shape shape) {
+        if (shape instanceof AdvancedCircle advancedCircle) {
+            advancedCircles = grow(advancedCircles, advancedCircleCount);
+            advancedCircles[advancedCircleCount++] = advancedCircle;
+        } else if (shape instanceof Circle circle) {
+            circles = grow(circles, circleCount);
+            circles[circleCount++] = circle;
+        } else if (shape instanceof AdvancedRectangle advancedRectangle) {
+            advancedRectangles = grow(advancedRectangles, advancedRectangleCount);
+            advancedRectangles[advancedRectangleCount++] = advancedRectangle;
+        } else if (shape instanceof Rectangle rectangle) {
+            rectangles = grow(rectangles, rectangleCount);
+            rectangles[rectangleCount++] = rectangle;
+        }
+    }
+
+    public int size() {
+        return circleCount + advancedCircleCount + rectangleCount + advancedRectangleCount;
+    }
+
+    public double totalArea() {
+        double total = 0;
+        for (int i = 0; i < circleCount; i++) {
+            total += circles[i].calculateArea();
+        }
+        for (int i = 0; i < advancedCircleCount; i++) {
+            total += advancedCircles[i].calculateArea();
+        }
+        for (int i = 0; i < rectangleCount; i++) {
+            total += rectangles[i].calculateArea();
+        }
+        for (int i = 0; i < advancedRectangleCount; i++) {
+            total += advancedRectangles[i].calculateArea();
+        }
+        return total;
+    }
+
+    public double totalPerimeter() {
+        double total = 0;
+        for (int i = 0; i < circleCount; i++) {
+            total += circles[i].calculatePerimeter();
+        }
+        for (int i = 0; i < advancedCircleCount; i++) {
+            total += advancedCircles[i].calculatePerimeter();
+        }
+        for (int i = 0; i < rectangleCount; i++) {
+            total += rectangles[i].calculatePerimeter();
+        }
+        for (int i = 0; i < advancedRectangleCount; i++) {
+            total += advancedRectangles[i].calculatePerimeter();
+        }
+        return total;
+    }
+
+    // Area and perimeter in a single pass over each group
+    public ShapeTotals totals() {
+        double area = 0;
+        double perimeter = 0;
+        for (int i = 0; i < circleCount; i++) {
+            area += circles[i].calculateArea();
+            perimeter += circles[i].calculatePerimeter();
+        }
+        for (int i = 0; i < advancedCircleCount; i++) {
+            area += advancedCircles[i].calculateArea();
+            perimeter += advancedCircles[i].calculatePerimeter();
+        }
+        for (int i = 0; i < rectangleCount; i++) {
+            area += rectangles[i].calculateArea();
+            perimeter += rectangles[i].calculatePerimeter();
+        }
+        for (int i = 0; i < advancedRectangleCount; i++) {
+            area += advancedRectangles[i].calculateArea();
+            perimeter += advancedRectangles[i].calculatePerimeter();
+        }
+        return new ShapeTotals(area, perimeter);
+    }
+
+    // Output is grouped by type rather than in insertion order
+    public void displayAll() {
+        for (int i = 0; i < circleCount; i++) {
+            circles[i].displayInfo();
+        }
+        for (int i = 0; i < advancedCircleCount; i++) {
+            advancedCircles[i].displayInfo();
+        }
+        for (int i = 0; i < rectangleCount; i++) {
+            rectangles[i].displayInfo();
+        }
+        for (int i = 0; i < advancedRectangleCount; i++) {
+            advancedRectangles[i].displayInfo();
+        }
+    }
+
+    private static <T> T[] grow(T[] array, int count) {
+        return count < array.length ? array : Arrays.copyOf(array, count * 2);
+    }
+}
+
+// DrawableBatch.java - Drawables grouped by concrete class
+class DrawableBatch {
+    private final List<Triangle> triangles = new ArrayList<>();
+    private final List<AdvancedCircle> circles = new ArrayList<>();
+    private final List<AdvancedRectangle> rectangles = new ArrayList<>();
+
+    public static DrawableBatch of(Drawable... drawables) {
+        DrawableBatch batch = new DrawableBatch();
+        for (Drawable drawable : drawables) {
+            batch.add(drawable);
+        }
+        return batch;
+    }
+
+    public void add(Drawable drawable) {
+        if (drawable instanceof Triangle triangle) {
+            triangles.add(triangle);
+        } else if (drawable instanceof AdvancedCircle circle) {
+            circles.add(circle);
+        } else if (drawable instanceof AdvancedRectangle rectangle) {
+            rectangles.add(rectangle);
+        }
+    }
+
+    public int size() {
+        return triangles.size() + circles.size() + rectangles.size();
+    }
+
+    public void drawAll() {
+        triangles.forEach(Triangle::draw);
+        circles.forEach(AdvancedCircle::draw);
+        rectangles.forEach(AdvancedRectangle::draw);
+    }
+
+    public void displayAll() {
+        triangles.forEach(Triangle::display);
+        circles.forEach(AdvancedCircle::display);
+        rectangles.forEach(AdvancedRectangle::display);
+    }
+
+    // Every permitted Drawable is also Colorable, so no instanceof check is needed
+    public void setColorAll(String color) {
+        triangles.forEach(triangle -> triangle.setColor(color));
+        circles.forEach(circle -> circle.setColor(color));
+        rectangles.forEach(rectangle -> rectangle.setColor(color));
+    }
+}
+
+// ShapeDispatchBenchmark.java - Polymorphic loop vs type-grouped batch
+// Run with: java ShapeDispatchBenchmark [shapeCount]
+class ShapeDispatchBenchmark {
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        Shape[] shapes = new Shape[count];
+        for (int i = 0; i < count; i++) {
+            double a = 1 + random.nextDouble() * 10;
+            double b = 1 + random.nextDouble() * 10;
+            switch (i % 4) {
+                case 0: shapes[i] = new Circle("Red", a); break;
+                case 1: shapes[i] = new Rectangle("Blue", a, b); break;
+                case 2: shapes[i] = new AdvancedCircle("Green", a); break;
+                default: shapes[i] = new AdvancedRectangle("Purple", a, b); break;
+            }
+        }
+        ShapeBatch batch = ShapeBatch.of(shapes);
+
+        System.out.println("📐 Summing area and perimeter of " + count + " shapes (4 concrete types)");
+        double polymorphic = measure(() -> polymorphicTotal(shapes));
+        double grouped = measure(() -> {
+            ShapeTotals totals = batch.totals();
+            return totals.getArea() + totals.getPerimeter();
+        });
+        System.out.printf("Polymorphic loop: %.2f ms/op%n", polymorphic);
+        System.out.printf("Grouped batch:    %.2f ms/op%n", grouped);
+        System.out.printf("Speedup: %.2fx%n", polymorphic / grouped);
+    }
+
+    static double polymorphicTotal(Shape[] shapes) {
+        double area = 0;
+        double perimeter = 0;
+        for (Shape shape : shapes) {
+            area += shape.calculateArea();
+            perimeter += shape.calculatePerimeter();
+        }
+        return area + perimeter;
+    }
+
+    // Average milliseconds per call after warm-up; the sink keeps the work from being eliminated
+    private static double measure(DoubleSupplier work) {
+        double sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += work.getAsDouble();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += work.getAsDouble();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+}
@@ -0,0 +1,465 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+// Spatial Index - Bounding boxes and a uniform grid for Drawable hit-testing
+// Each placed Drawable has an anchor point: the centre of a circle, or the lower-left
+// corner of a rectangle or triangle (first side along the x axis). The grid hashes
+// every box into the fixed-size cells it overlaps, so point and window queries only
+// look at the cells they touch instead of scanning every shape. Cells are stored
+// sparsely, so coordinates are unbounded and empty space costs nothing.
+
+// BoundingBox.java - Axis-aligned rectangle
+final class BoundingBox {
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    public BoundingBox(double minX, double minY, double maxX, double maxY) {
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("Min corner must not exceed max corner");
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    public double getMinX() { return minX; }
+    public double getMinY() { return minY; }
+    public double getMaxX() { return maxX; }
+    public double getMaxY() { return maxY; }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    public boolean contains(BoundingBox other) {
+        return other.minX >= minX && other.maxX <= maxX && other.minY >= minY && other.maxY <= maxY;
+    }
+
+    public boolean intersects(BoundingBox other) {
+        return other.minX <= maxX && other.maxX >= minX && other.minY <= maxY && other.maxY >= minY;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[(%.2f, %.2f) - (%.2f, %.2f)]", minX, minY, maxX, maxY);
+    }
+}
+
+// DrawableGeometry.java - Bounds and exact hit tests for each Drawable type
+final class DrawableGeometry {
+    private DrawableGeometry() {}
+
+    public static BoundingBox bounds(Drawable drawable, double x, double y) {
+        if (drawable instanceof AdvancedCircle circle) {
+            double r = circle.getRadius();
+            return new BoundingBox(x - r, y - r, x + r, y + r);
+        } else if (drawable instanceof AdvancedRectangle rectangle) {
+            return new BoundingBox(x, y, x + rectangle.getLength(), y + rectangle.getWidth());
+        } else {
+            double[] apex = triangleApex((Triangle) drawable);
+            double base = ((Triangle) drawable).getSide1();
+            return new BoundingBox(x + Math.min(0, apex[0]), y, x + Math.max(base, apex[0]), y + apex[1]);
+        }
+    }
+
+    // True if (px, py) lies on the shape itself, not just inside its box
+    public static boolean hits(Drawable drawable, double x, double y, double px, double py) {
+        if (drawable instanceof AdvancedCircle circle) {
+            double dx = px - x;
+            double dy = py - y;
+            return dx * dx + dy * dy <= circle.getRadius() * circle.getRadius();
+        } else if (drawable instanceof AdvancedRectangle) {
+            return bounds(drawable, x, y).contains(px, py);
+        } else {
+            Triangle triangle = (Triangle) drawable;
+            double[] apex = triangleApex(triangle);
+            return insideTriangle(px - x, py - y, 0, 0, triangle.getSide1(), 0, apex[0], apex[1]);
+        }
+    }
+
+    // Third vertex when side1 runs from the origin along x and side3 joins origin to apex
+    private static double[] triangleApex(Triangle triangle) {
+        double a = triangle.getSide1();
+        double b = triangle.getSide2();
+        double c = triangle.getSide3();
+        double apexX = a == 0 ? 0 : (a * a + c * c - b * b) / (2 * a);
+        double apexY = Math.sqrt(Math.max(0, c * c - apexX * apexX));
+        return new double[] { apexX, apexY };
+    }
+
+    private static boolean insideTriangle(double px, double py, double ax, double ay,
+                                          double bx, double by, double cx, double cy) {
+        double d1 = (px - bx) * (ay - by) - (ax - bx) * (py - by);
+        double d2 = (px - cx) * (by - cy) - (bx - cx) * (py - cy);
+        double d3 = (px - ax) * (cy - ay) - (cx - ax) * (py - ay);
+        boolean hasNegative = d1 < 0 || d2 < 0 || d3 < 0;
+        boolean hasPositive = d1 > 0 || d2 > 0 || d3 > 0;
+        return !(hasNegative && hasPositive);
+    }
+}
+
+// GridCells.java - Open-addressing table from packed cell coordinates to cell contents
+// Keys are primitive longs, so lookups neither box nor allocate.
+final class GridCells<E> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[][] buckets;
+    private int[] counts;
+    private int occupied;
+
+    GridCells() {
+        keys = new long[64];
+        buckets = new Object[64][];
+        counts = new int[64];
+    }
+
+    int occupiedCells() {
+        return occupied;
+    }
+
+    void add(long key, E element) {
+        if (occupied + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        int slot = findSlot(key);
+        Object[] bucket = buckets[slot];
+        if (bucket == null) {
+            keys[slot] = key;
+            buckets[slot] = bucket = new Object[4];
+            occupied++;
+        } else if (counts[slot] == bucket.length) {
+            buckets[slot] = bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[counts[slot]++] = element;
+    }
+
+    // Order inside a cell does not matter, so the last element fills the hole
+    void remove(long key, E element) {
+        int slot = findSlot(key);
+        Object[] bucket = buckets[slot];
+        if (bucket == null) {
+            return;
+        }
+        int count = counts[slot];
+        for (int i = 0; i < count; i++) {
+            if (bucket[i] == element) {
+                bucket[i] = bucket[count - 1];
+                bucket[count - 1] = null;
+                counts[slot] = --count;
+                break;
+            }
+        }
+        if (count == 0) {
+            deleteSlot(slot);
+        }
+    }
+
+    // Visit every element stored in one cell
+    @SuppressWarnings("unchecked")
+    void forEach(long key, Consumer<E> action) {
+        int slot = findSlot(key);
+        Object[] bucket = buckets[slot];
+        if (bucket != null) {
+            for (int i = 0, count = counts[slot]; i < count; i++) {
+                action.accept((E) bucket[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachOccupied(Consumer<E> action) {
+        for (int slot = 0; slot < buckets.length; slot++) {
+            Object[] bucket = buckets[slot];
+            if (bucket != null) {
+                for (int i = 0, count = counts[slot]; i < count; i++) {
+                    action.accept((E) bucket[i]);
+                }
+            }
+        }
+    }
+
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (buckets[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        buckets[slot] = null;
+        counts[slot] = 0;
+        occupied--;
+        int next = (slot + 1) & mask;
+        while (buckets[next] != null) {
+            int home = (int) mix(keys[next]) & mask;
+            boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+            if (movable) {
+                keys[slot] = keys[next];
+                buckets[slot] = buckets[next];
+                counts[slot] = counts[next];
+                buckets[next] = null;
+                counts[next] = 0;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[][] oldBuckets = buckets;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        buckets = new Object[capacity][];
+        counts = new int[capacity];
+        for (int i = 0; i < oldBuckets.length; i++) {
+            if (oldBuckets[i] != null) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                buckets[slot] = oldBuckets[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 32);
+    }
+}
+
+// SpatialGridIndex.java - Uniform-grid index supporting insert, move and remove
+// Not thread-safe; guard externally if the scene is shared.
+class SpatialGridIndex<T extends Drawable> {
+    // Boxes spanning more cells than this go on a short list checked by every query
+    private static final int MAX_CELLS_PER_ENTRY = 64;
+
+    private static final class Entry<T> {
+        final T item;
+        BoundingBox bounds;
+        double anchorX;
+        double anchorY;
+        boolean anchored;   // false when placed by explicit bounds; hit tests then use the box
+        boolean oversized;
+        int minCellX, minCellY, maxCellX, maxCellY;
+        long visitedBy;     // query number that last reported this entry
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+
+    private final double cellSize;
+    private final GridCells<Entry<T>> cells = new GridCells<>();
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private final List<Entry<T>> oversized = new ArrayList<>();
+    private long queryCounter;
+
+    // Cells should be about the size of a typical shape
+    public SpatialGridIndex(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    // Place a drawable at an anchor point; bounds come from its geometry
+    public void insert(T item, double x, double y) {
+        Entry<T> entry = newEntry(item);
+        setAnchor(entry, x, y);
+        link(entry);
+    }
+
+    public void insert(T item, BoundingBox bounds) {
+        Entry<T> entry = newEntry(item);
+        entry.bounds = bounds;
+        link(entry);
+    }
+
+    // Re-anchor an item; only the cells that actually change are touched
+    public boolean move(T item, double x, double y) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            return false;
+        }
+        setAnchor(entry, x, y);
+        relink(entry);
+        return true;
+    }
+
+    public boolean move(T item, BoundingBox bounds) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            return false;
+        }
+        entry.bounds = bounds;
+        entry.anchored = false;
+        relink(entry);
+        return true;
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public BoundingBox getBounds(T item) {
+        Entry<T> entry = entries.get(item);
+        return entry == null ? null : entry.bounds;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Items whose shape covers the point (exact test for anchored items)
+    public List<T> queryPoint(double x, double y) {
+        List<T> result = new ArrayList<>();
+        long query = ++queryCounter;
+        cells.forEach(key(cellOf(x), cellOf(y)), entry -> collectHit(entry, x, y, query, result));
+        for (Entry<T> entry : oversized) {
+            collectHit(entry, x, y, query, result);
+        }
+        return result;
+    }
+
+    // Items whose bounds overlap the window
+    public List<T> queryWindow(BoundingBox window) {
+        return queryWindow(window, false);
+    }
+
+    // Items whose bounds lie entirely inside the window
+    public List<T> queryContained(BoundingBox window) {
+        return queryWindow(window, true);
+    }
+
+    private List<T> queryWindow(BoundingBox window, boolean containedOnly) {
+        List<T> result = new ArrayList<>();
+        long query = ++queryCounter;
+        int minX = cellOf(window.getMinX());
+        int minY = cellOf(window.getMinY());
+        int maxX = cellOf(window.getMaxX());
+        int maxY = cellOf(window.getMaxY());
+        long windowCells = ((long) maxX - minX + 1) * ((long) maxY - minY + 1);
+
+        Consumer<Entry<T>> collect = entry -> collectWindow(entry, window, containedOnly, query, result);
+        if (windowCells > cells.occupiedCells()) {
+            // Huge window over a sparse grid: walk the occupied cells instead
+            cells.forEachOccupied(collect);
+        } else {
+            for (int cx = minX; cx <= maxX; cx++) {
+                for (int cy = minY; cy <= maxY; cy++) {
+                    cells.forEach(key(cx, cy), collect);
+                }
+            }
+        }
+        for (Entry<T> entry : oversized) {
+            collectWindow(entry, window, containedOnly, query, result);
+        }
+        return result;
+    }
+
+    private void collectHit(Entry<T> entry, double x, double y, long query, List<T> result) {
+        if (entry.visitedBy == query || !entry.bounds.contains(x, y)) {
+            return;
+        }
+        entry.visitedBy = query;
+        if (!entry.anchored || DrawableGeometry.hits(entry.item, entry.anchorX, entry.anchorY, x, y)) {
+            result.add(entry.item);
+        }
+    }
+
+    private void collectWindow(Entry<T> entry, BoundingBox window, boolean containedOnly,
+                               long query, List<T> result) {
+        if (entry.visitedBy == query) {
+            return;
+        }
+        entry.visitedBy = query;
+        if (containedOnly ? window.contains(entry.bounds) : window.intersects(entry.bounds)) {
+            result.add(entry.item);
+        }
+    }
+
+    private Entry<T> newEntry(T item) {
+        if (entries.containsKey(item)) {
+            throw new IllegalArgumentException("Item is already indexed; use move()");
+        }
+        Entry<T> entry = new Entry<>(item);
+        entries.put(item, entry);
+        return entry;
+    }
+
+    private void setAnchor(Entry<T> entry, double x, double y) {
+        entry.bounds = DrawableGeometry.bounds(entry.item, x, y);
+        entry.anchorX = x;
+        entry.anchorY = y;
+        entry.anchored = true;
+    }
+
+    // unlink() works from the cell range recorded at link time, not from the new bounds
+    private void relink(Entry<T> entry) {
+        BoundingBox bounds = entry.bounds;
+        if (!entry.oversized
+                && cellOf(bounds.getMinX()) == entry.minCellX && cellOf(bounds.getMinY()) == entry.minCellY
+                && cellOf(bounds.getMaxX()) == entry.maxCellX && cellOf(bounds.getMaxY()) == entry.maxCellY) {
+            return; // same cells, nothing to relink
+        }
+        unlink(entry);
+        link(entry);
+    }
+
+    private void link(Entry<T> entry) {
+        BoundingBox bounds = entry.bounds;
+        entry.minCellX = cellOf(bounds.getMinX());
+        entry.minCellY = cellOf(bounds.getMinY());
+        entry.maxCellX = cellOf(bounds.getMaxX());
+        entry.maxCellY = cellOf(bounds.getMaxY());
+        long spanned = ((long) entry.maxCellX - entry.minCellX + 1) * ((long) entry.maxCellY - entry.minCellY + 1);
+        entry.oversized = spanned > MAX_CELLS_PER_ENTRY;
+        if (entry.oversized) {
+            oversized.add(entry);
+            return;
+        }
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                cells.add(key(cx, cy), entry);
+            }
+        }
+    }
+
+    private void unlink(Entry<T> entry) {
+        if (entry.oversized) {
+            oversized.remove(entry);
+            return;
+        }
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                cells.remove(key(cx, cy), entry);
+            }
+        }
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Subject Event Log - Durable, offset-addressed history of Subject state changes
+//
+// The log is a directory of memory-mapped segment files named after the offset of
+// their first record. Each record is laid out as
+//   [int length + 1][long timestampMillis][length bytes of UTF-8]
+// The length word is written last and is never zero for a real record, so a
+// reader stops cleanly at the first unwritten slot; -1 records a null message.
+// Subscribers keep their own offsets (see LogCursor) and can replay from any point.
+// Retention also runs on a background timer, so a subject that stops publishing still
+// loses expired records; once every record in the active segment has expired, the
+// segment is closed and deleted like any other.
+
+// LogEntry.java - One record read back from the log
+class LogEntry {
+    private final long offset;
+    private final long timestampMillis;
+    private final String message;
+
+    public LogEntry(long offset, long timestampMillis, String message) {
+        this.offset = offset;
+        this.timestampMillis = timestampMillis;
+        this.message = message;
+    }
+
+    public long getOffset() { return offset; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getMessage() { return message; }
+}
+
+// LogSegment.java - A single mapped segment file
+class LogSegment {
+    private static final int RECORD_HEADER = 12;
+    private static final int NULL_RECORD = -1; // length word of a null message
+
+    private final Path path;
+    private final long baseOffset;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int[] positions = new int[1024]; // byte position of each record
+    private int count;
+    private int writePosition;
+    private long lastTimestamp;
+
+    LogSegment(Path path, long baseOffset, int capacity) throws IOException {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        recover();
+    }
+
+    // Rebuild the position table by walking records until the first empty length
+    private void recover() {
+        int position = 0;
+        while (position + RECORD_HEADER <= buffer.capacity()) {
+            int word = buffer.getInt(position);
+            int length = word == NULL_RECORD ? 0 : word - 1;
+            if (length < 0 || position + RECORD_HEADER + length > buffer.capacity()) {
+                break;
+            }
+            addPosition(position);
+            lastTimestamp = buffer.getLong(position + 4);
+            position += RECORD_HEADER + length;
+        }
+        writePosition = position;
+    }
+
+    // Bytes a record with this payload takes up in a segment
+    static int recordBytes(int payloadLength) {
+        return RECORD_HEADER + payloadLength;
+    }
+
+    boolean hasRoomFor(int payloadLength) {
+        return writePosition + RECORD_HEADER + payloadLength <= buffer.capacity();
+    }
+
+    // A null payload records a null message
+    long append(byte[] payload, long timestampMillis) {
+        int position = writePosition;
+        int length = payload == null ? 0 : payload.length;
+        buffer.putLong(position + 4, timestampMillis);
+        if (payload != null) {
+            buffer.put(position + RECORD_HEADER, payload);
+        }
+        buffer.putInt(position, payload == null ? NULL_RECORD : length + 1);
+        writePosition += RECORD_HEADER + length;
+        lastTimestamp = timestampMillis;
+        addPosition(position);
+        return baseOffset + count - 1;
+    }
+
+    LogEntry read(long offset) {
+        int position = positions[(int) (offset - baseOffset)];
+        int word = buffer.getInt(position);
+        if (word == NULL_RECORD) {
+            return new LogEntry(offset, buffer.getLong(position + 4), null);
+        }
+        int length = word - 1;
+        byte[] payload = new byte[length];
+        buffer.get(position + RECORD_HEADER, payload);
+        return new LogEntry(offset, buffer.getLong(position + 4), new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private void addPosition(int position) {
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+        }
+        positions[count++] = position;
+    }
+
+    long getBaseOffset() { return baseOffset; }
+    long getNextOffset() { return baseOffset + count; }
+    long getLastTimestamp() { return lastTimestamp; }
+    long getSizeBytes() { return writePosition; }
+    Path getPath() { return path; }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
+
+// SubjectEventLog.java - Append, read and retention over a list of segments
+class SubjectEventLog implements AutoCloseable {
+    private static final String SUFFIX = ".log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("\\d{20}" + Pattern.quote(SUFFIX));
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long retentionBytes;
+    private final Duration retentionAge;
+    private final List<LogSegment> segments = new ArrayList<>();
+    private final ScheduledExecutorService retentionTimer;
+
+    // retentionBytes bounds closed segments; retentionAge bounds every record, checked
+    // at least every minute (or every retentionAge, if shorter)
+    public SubjectEventLog(Path directory, int segmentBytes, long retentionBytes, Duration retentionAge)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.retentionBytes = retentionBytes;
+        this.retentionAge = retentionAge;
+        Files.createDirectories(directory);
+
+        List<Long> baseOffsets = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                .filter(name -> SEGMENT_NAME.matcher(name).matches()) // ignore stray *.log files
+                .forEach(name -> baseOffsets.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+        }
+        Collections.sort(baseOffsets);
+        for (long baseOffset : baseOffsets) {
+            segments.add(new LogSegment(segmentPath(baseOffset), baseOffset, segmentBytes));
+        }
+        if (segments.isEmpty()) {
+            segments.add(new LogSegment(segmentPath(0), 0, segmentBytes));
+        }
+
+        retentionTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-log-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1, Math.min(60_000, retentionAge.toMillis()));
+        retentionTimer.scheduleWithFixedDelay(() -> {
+            try {
+                enforceRetention();
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Event log retention failed: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // A null message is recorded and read back as null
+    public synchronized long append(String message) {
+        byte[] payload = message == null ? null : message.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = payload == null ? 0 : payload.length;
+        // Checked before rolling, so an oversized message never leaves an empty segment behind
+        if (LogSegment.recordBytes(payloadLength) > segmentBytes) {
+            throw new IllegalArgumentException("Message larger than a log segment");
+        }
+        LogSegment active = segments.get(segments.size() - 1);
+        if (!active.hasRoomFor(payloadLength)) {
+            active.force();
+            active = roll(active.getNextOffset());
+        }
+        return active.append(payload, System.currentTimeMillis());
+    }
+
+    // Up to maxEntries records starting at offset; offsets removed by retention are skipped
+    public synchronized List<LogEntry> read(long offset, int maxEntries) {
+        List<LogEntry> result = new ArrayList<>();
+        long next = Math.max(offset, getStartOffset());
+        for (LogSegment segment : segments) {
+            while (next < segment.getNextOffset() && result.size() < maxEntries) {
+                if (next >= segment.getBaseOffset()) {
+                    result.add(segment.read(next));
+                }
+                next++;
+            }
+        }
+        return result;
+    }
+
+    // Oldest offset still retained
+    public synchronized long getStartOffset() {
+        return segments.get(0).getBaseOffset();
+    }
+
+    // Offset the next append will receive
+    public synchronized long getEndOffset() {
+        return segments.get(segments.size() - 1).getNextOffset();
+    }
+
+    public synchronized void flush() {
+        segments.get(segments.size() - 1).force();
+    }
+
+    // Drop closed segments that are too old or push the log over its size budget. An
+    // active segment whose records have all expired is closed first so it can go too.
+    public synchronized void enforceRetention() {
+        long cutoff = System.currentTimeMillis() - retentionAge.toMillis();
+        LogSegment active = segments.get(segments.size() - 1);
+        if (active.getNextOffset() > active.getBaseOffset() && active.getLastTimestamp() < cutoff) {
+            active.force();
+            segments.add(openSegment(active.getNextOffset()));
+        }
+        long totalBytes = 0;
+        for (LogSegment segment : segments) {
+            totalBytes += segment.getSizeBytes();
+        }
+        while (segments.size() > 1) {
+            LogSegment oldest = segments.get(0);
+            if (totalBytes <= retentionBytes && oldest.getLastTimestamp() >= cutoff) {
+                break;
+            }
+            segments.remove(0);
+            totalBytes -= oldest.getSizeBytes();
+            try {
+                oldest.close();
+                Files.deleteIfExists(oldest.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        retentionTimer.shutdownNow();
+        for (LogSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private LogSegment roll(long baseOffset) {
+        LogSegment segment = openSegment(baseOffset);
+        segments.add(segment);
+        enforceRetention();
+        return segment;
+    }
+
+    private LogSegment openSegment(long baseOffset) {
+        try {
+            return new LogSegment(segmentPath(baseOffset), baseOffset, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SUFFIX));
+    }
+}
+
+// LogCursor.java - A subscriber's position in the log, optionally persisted to a file
+class LogCursor {
+    private final SubjectEventLog log;
+    private final Path offsetFile;
+    private long position;
+
+    public LogCursor(SubjectEventLog log, long startOffset) {
+        this.log = log;
+        this.offsetFile = null;
+        this.position = startOffset;
+    }
+
+    // Resumes from the offset saved in offsetFile, or from the start of the log
+    public LogCursor(SubjectEventLog log, Path offsetFile) throws IOException {
+        this.log = log;
+        this.offsetFile = offsetFile;
+        this.position = Files.exists(offsetFile)
+            ? Long.parseLong(Files.readString(offsetFile).trim())
+            : log.getStartOffset();
+    }
+
+    // Deliver up to maxEntries records to the observer; returns how many were delivered
+    public int replayTo(Observer observer, int maxEntries) {
+        List<LogEntry> entries = log.read(position, maxEntries);
+        for (LogEntry entry : entries) {
+            observer.update(entry.getMessage());
+            position = entry.getOffset() + 1;
+        }
+        return entries.size();
+    }
+
+    public void seek(long offset) {
+        position = offset;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getLag() {
+        return Math.max(0, log.getEndOffset() - position);
+    }
+
+    // Writes a temporary file and renames it over offsetFile, so a crash mid-commit
+    // leaves either the old offset or the new one, never a torn file
+    public void commit() throws IOException {
+        if (offsetFile != null) {
+            Path temp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+            Files.writeString(temp, Long.toString(position));
+            Files.move(temp, offsetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
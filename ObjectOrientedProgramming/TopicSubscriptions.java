@@ -0,0 +1,220 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+// Topic and Predicate Subscriptions - Observer pattern with indexed routing
+// Observers subscribe to a topic, optionally narrowed by attribute equality filters
+// and a free-form predicate. Publishing looks up interested observers through
+// per-topic indexes instead of calling every observer and letting it filter.
+
+// TopicEvent.java - A message published on a topic with optional attributes
+class TopicEvent {
+    private final String topic;
+    private final String message;
+    private final Map<String, String> attributes;
+
+    public TopicEvent(String topic, String message) {
+        this(topic, message, Map.of());
+    }
+
+    public TopicEvent(String topic, String message, Map<String, String> attributes) {
+        this.topic = topic;
+        this.message = message;
+        this.attributes = Map.copyOf(attributes);
+    }
+
+    public String getTopic() { return topic; }
+    public String getMessage() { return message; }
+    public Map<String, String> getAttributes() { return attributes; }
+    public String getAttribute(String name) { return attributes.get(name); }
+}
+
+// SubscriptionFilter.java - Attribute equalities (indexable) plus an optional residual predicate
+// Immutable: and(...) returns a new filter, so a filter already used to subscribe can be
+// extended without moving the subscription away from the index slot it was stored in.
+class SubscriptionFilter {
+    private static final SubscriptionFilter EMPTY = new SubscriptionFilter(Map.of(), null);
+
+    private final Map<String, String> equalities;
+    private final Predicate<TopicEvent> predicate;
+
+    private SubscriptionFilter(Map<String, String> equalities, Predicate<TopicEvent> predicate) {
+        this.equalities = equalities;
+        this.predicate = predicate;
+    }
+
+    public static SubscriptionFilter where(String attribute, String value) {
+        return EMPTY.and(attribute, value);
+    }
+
+    public static SubscriptionFilter matching(Predicate<TopicEvent> predicate) {
+        return EMPTY.and(predicate);
+    }
+
+    public SubscriptionFilter and(String attribute, String value) {
+        Map<String, String> extended = new LinkedHashMap<>(equalities);
+        extended.put(Objects.requireNonNull(attribute), Objects.requireNonNull(value));
+        return new SubscriptionFilter(Collections.unmodifiableMap(extended), predicate);
+    }
+
+    public SubscriptionFilter and(Predicate<TopicEvent> extra) {
+        return new SubscriptionFilter(equalities, predicate == null ? extra : predicate.and(extra));
+    }
+
+    public Map<String, String> getEqualities() { return equalities; }
+
+    public boolean matches(TopicEvent event) {
+        for (Map.Entry<String, String> equality : equalities.entrySet()) {
+            if (!equality.getValue().equals(event.getAttribute(equality.getKey()))) {
+                return false;
+            }
+        }
+        return predicate == null || predicate.test(event);
+    }
+}
+
+// Subscription.java - Handle returned to subscribers so they can cancel
+class Subscription {
+    private final TopicSubject subject;
+    private final String topic;
+    private final Observer observer;
+    private final SubscriptionFilter filter;
+
+    Subscription(TopicSubject subject, String topic, Observer observer, SubscriptionFilter filter) {
+        this.subject = subject;
+        this.topic = topic;
+        this.observer = observer;
+        this.filter = filter;
+    }
+
+    public String getTopic() { return topic; }
+    public Observer getObserver() { return observer; }
+    public SubscriptionFilter getFilter() { return filter; }
+
+    public void cancel() {
+        subject.unsubscribe(this);
+    }
+}
+
+// TopicIndex.java - Subscriptions for one topic
+// Filtered subscriptions are anchored on their first equality, so an event only
+// touches subscriptions whose anchor matches one of its attributes.
+class TopicIndex {
+    private final List<Subscription> unfiltered = new CopyOnWriteArrayList<>();
+    private final List<Subscription> predicateOnly = new CopyOnWriteArrayList<>();
+    private final Map<String, Map<String, List<Subscription>>> byAttribute = new ConcurrentHashMap<>();
+    private int size; // mutated only while TopicSubject holds this topic's map entry
+
+    public void add(Subscription subscription) {
+        size++;
+        SubscriptionFilter filter = subscription.getFilter();
+        if (filter == null) {
+            unfiltered.add(subscription);
+        } else if (filter.getEqualities().isEmpty()) {
+            predicateOnly.add(subscription);
+        } else {
+            Map.Entry<String, String> anchor = filter.getEqualities().entrySet().iterator().next();
+            byAttribute.computeIfAbsent(anchor.getKey(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(anchor.getValue(), value -> new CopyOnWriteArrayList<>())
+                .add(subscription);
+        }
+    }
+
+    public void remove(Subscription subscription) {
+        SubscriptionFilter filter = subscription.getFilter();
+        boolean removed = false;
+        if (filter == null) {
+            removed = unfiltered.remove(subscription);
+        } else if (filter.getEqualities().isEmpty()) {
+            removed = predicateOnly.remove(subscription);
+        } else {
+            Map.Entry<String, String> anchor = filter.getEqualities().entrySet().iterator().next();
+            Map<String, List<Subscription>> byValue = byAttribute.get(anchor.getKey());
+            List<Subscription> candidates = byValue == null ? null : byValue.get(anchor.getValue());
+            if (candidates != null) {
+                removed = candidates.remove(subscription);
+                if (candidates.isEmpty()) {
+                    byValue.remove(anchor.getValue());
+                }
+            }
+        }
+        if (removed) {
+            size--;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the number of observers notified
+    public int dispatch(TopicEvent event) {
+        int delivered = 0;
+        for (Subscription subscription : unfiltered) {
+            subscription.getObserver().update(event.getMessage());
+            delivered++;
+        }
+        for (Map.Entry<String, String> attribute : event.getAttributes().entrySet()) {
+            Map<String, List<Subscription>> byValue = byAttribute.get(attribute.getKey());
+            List<Subscription> candidates = byValue == null ? null : byValue.get(attribute.getValue());
+            if (candidates != null) {
+                delivered += deliverMatching(candidates, event);
+            }
+        }
+        delivered += deliverMatching(predicateOnly, event);
+        return delivered;
+    }
+
+    private static int deliverMatching(List<Subscription> candidates, TopicEvent event) {
+        int delivered = 0;
+        for (Subscription subscription : candidates) {
+            if (subscription.getFilter().matches(event)) {
+                subscription.getObserver().update(event.getMessage());
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+}
+
+// TopicSubject.java - Subject that can also route events by topic
+// Plain observers added with addObserver still receive every setState call.
+class TopicSubject extends Subject {
+    private final Map<String, TopicIndex> topics = new ConcurrentHashMap<>();
+
+    public Subscription subscribe(String topic, Observer observer) {
+        return subscribe(topic, observer, null);
+    }
+
+    public Subscription subscribe(String topic, Observer observer, SubscriptionFilter filter) {
+        Subscription subscription = new Subscription(this, topic, observer, filter);
+        topics.compute(topic, (key, index) -> {
+            TopicIndex target = index == null ? new TopicIndex() : index;
+            target.add(subscription);
+            return target;
+        });
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        topics.computeIfPresent(subscription.getTopic(), (topic, index) -> {
+            index.remove(subscription);
+            return index.isEmpty() ? null : index;
+        });
+    }
+
+    public int publish(String topic, String message) {
+        return publish(new TopicEvent(topic, message));
+    }
+
+    // Returns the number of observers notified
+    public int publish(TopicEvent event) {
+        TopicIndex index = topics.get(event.getTopic());
+        return index == null ? 0 : index.dispatch(event);
+    }
+
+    public int getTopicCount() {
+        return topics.size();
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// Transfer Engine - Batched, deadlock-free transfers between accounts
+// A batch is split into groups of transfers that share accounts (connected
+// components of the "from/to" graph). Each group is applied in submission order
+// by exactly one worker, and different groups run in parallel, so no account is
+// ever written by two workers of the same batch and no locks are taken.
+
+// TransferStatus.java
+enum TransferStatus {
+    COMPLETED, INSUFFICIENT_FUNDS, INVALID
+}
+
+// Transfer.java - One requested movement of money
+class Transfer {
+    private final ConcurrentBankAccount from;
+    private final ConcurrentBankAccount to;
+    private final long amountCents;
+    private volatile TransferStatus status;
+
+    public Transfer(ConcurrentBankAccount from, ConcurrentBankAccount to, long amountCents) {
+        this.from = from;
+        this.to = to;
+        this.amountCents = amountCents;
+    }
+
+    public ConcurrentBankAccount getFrom() { return from; }
+    public ConcurrentBankAccount getTo() { return to; }
+    public long getAmountCents() { return amountCents; }
+    public TransferStatus getStatus() { return status; }
+
+    void setStatus(TransferStatus status) { this.status = status; }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s $%s [%s]", from.getAccountNumber(), to.getAccountNumber(),
+            ConcurrentBankAccount.formatCents(amountCents), status);
+    }
+}
+
+// TransferBatchReport.java - Outcome and throughput of one batch
+class TransferBatchReport {
+    private final int completed;
+    private final List<Transfer> rejected;
+    private final long elapsedNanos;
+
+    public TransferBatchReport(int completed, List<Transfer> rejected, long elapsedNanos) {
+        this.completed = completed;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getCompleted() { return completed; }
+    public List<Transfer> getRejected() { return rejected; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getTransfersPerSecond() {
+        int total = completed + rejected.size();
+        return elapsedNanos == 0 ? 0 : total * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d completed, %d rejected, %.0f transfers/sec",
+            completed, rejected.size(), getTransfersPerSecond());
+    }
+}
+
+// TransferEngine.java
+class TransferEngine implements AutoCloseable {
+    private final ExecutorService workers;
+    private final int parallelism;
+
+    public TransferEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public TransferEngine(int parallelism) {
+        this.parallelism = parallelism;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+    }
+
+    public TransferBatchReport execute(List<Transfer> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        List<List<Transfer>> shards = shard(batch);
+
+        List<Callable<Integer>> tasks = new ArrayList<>(shards.size());
+        for (List<Transfer> shard : shards) {
+            tasks.add(() -> {
+                int completed = 0;
+                for (Transfer transfer : shard) {
+                    if (apply(transfer) == TransferStatus.COMPLETED) {
+                        completed++;
+                    }
+                }
+                return completed;
+            });
+        }
+
+        int completed = 0;
+        try {
+            for (Future<Integer> future : workers.invokeAll(tasks)) {
+                completed += future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Transfer worker failed", e.getCause());
+        }
+
+        List<Transfer> rejected = new ArrayList<>();
+        for (Transfer transfer : batch) {
+            if (transfer.getStatus() != TransferStatus.COMPLETED) {
+                rejected.add(transfer);
+            }
+        }
+        return new TransferBatchReport(completed, rejected, System.nanoTime() - start);
+    }
+
+    // Move money between two accounts; the withdrawal enforces the minimum balance
+    static TransferStatus apply(Transfer transfer) {
+        TransferStatus status;
+        if (transfer.getAmountCents() <= 0 || transfer.getFrom() == transfer.getTo()) {
+            status = TransferStatus.INVALID;
+        } else if (!transfer.getFrom().withdraw(transfer.getAmountCents())) {
+            status = TransferStatus.INSUFFICIENT_FUNDS;
+        } else if (!transfer.getTo().deposit(transfer.getAmountCents())) {
+            // Destination would overflow; put the money back
+            transfer.getFrom().deposit(transfer.getAmountCents());
+            status = TransferStatus.INVALID;
+        } else {
+            status = TransferStatus.COMPLETED;
+        }
+        transfer.setStatus(status);
+        return status;
+    }
+
+    // Group transfers so that every account belongs to exactly one shard
+    private List<List<Transfer>> shard(List<Transfer> batch) {
+        Map<ConcurrentBankAccount, Integer> ids = new IdentityHashMap<>();
+        int[] parent = new int[batch.size() * 2];
+        for (Transfer transfer : batch) {
+            int from = ids.computeIfAbsent(transfer.getFrom(), account -> makeSet(parent, ids.size()));
+            int to = ids.computeIfAbsent(transfer.getTo(), account -> makeSet(parent, ids.size()));
+            union(parent, from, to);
+        }
+
+        // Several small components share a shard; a component never spans two
+        int shardCount = Math.max(1, Math.min(parallelism * 4, ids.size()));
+        List<List<Transfer>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (Transfer transfer : batch) {
+            int root = find(parent, ids.get(transfer.getFrom()));
+            shards.get(root % shardCount).add(transfer);
+        }
+        shards.removeIf(List::isEmpty);
+        return shards;
+    }
+
+    private static int makeSet(int[] parent, int id) {
+        parent[id] = id;
+        return id;
+    }
+
+    private static int find(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]]; // path halving
+            id = parent[id];
+        }
+        return id;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
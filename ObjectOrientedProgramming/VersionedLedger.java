@@ -0,0 +1,341 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+// Versioned Ledger - Multi-version balances for point-in-time audit snapshots
+//
+// Each account keeps a newest-first chain of balance versions. A write installs a
+// new head whose stamp is "pending", then takes the next global version number.
+// Snapshots do not read that clock; they read a visible watermark that passes V only
+// after every write numbered <= V has published its stamp. A snapshot opened at V
+// reads, for every account, the newest version stamped <= V. Any head still pending
+// will therefore be stamped after V, so readers skip it and never wait for writers.
+// Transfers stamp both accounts with one shared version, so a snapshot sees
+// either both sides or neither. Each write also cuts off the version below its new
+// head when no open snapshot can read it, so without snapshots every chain stays at
+// one committed version; collectGarbage() trims what open snapshots kept alive.
+class VersionedLedger {
+    private static final long PENDING = Long.MAX_VALUE;
+    private static final long ABORTED = -1;
+
+    private static final class WriteStamp {
+        volatile long version = PENDING;
+    }
+
+    private static final class BalanceVersion {
+        final WriteStamp stamp;
+        final long balanceCents;
+        volatile BalanceVersion older;
+
+        BalanceVersion(WriteStamp stamp, long balanceCents, BalanceVersion older) {
+            this.stamp = stamp;
+            this.balanceCents = balanceCents;
+            this.older = older;
+        }
+
+        boolean isCommitted() {
+            long version = stamp.version;
+            return version != PENDING && version != ABORTED;
+        }
+    }
+
+    private static final class VersionedAccount {
+        final String number;
+        final long minimumCents;
+        final AtomicReference<BalanceVersion> head;
+
+        VersionedAccount(String number, long minimumCents, BalanceVersion first) {
+            this.number = number;
+            this.minimumCents = minimumCents;
+            this.head = new AtomicReference<>(first);
+        }
+    }
+
+    // Sorted by account number, which is also the order multi-account writes install in
+    private final ConcurrentSkipListMap<String, VersionedAccount> accounts = new ConcurrentSkipListMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong visible = new AtomicLong(); // every version <= this is stamped
+    private final TreeMap<Long, Integer> openSnapshots = new TreeMap<>(); // version -> open count
+    // Oldest open snapshot version (Long.MAX_VALUE if none), readable without the lock.
+    // opening is raised while a snapshot picks its version, and writers skip trimming
+    // then, because that snapshot may still pick a version older than their head.
+    private volatile long snapshotFloor = Long.MAX_VALUE;
+    private final AtomicInteger opening = new AtomicInteger();
+
+    public void openAccount(String number, long initialCents, long minimumCents) {
+        if (initialCents < minimumCents) {
+            throw new IllegalArgumentException("Initial balance must be at least the minimum");
+        }
+        WriteStamp stamp = new WriteStamp();
+        VersionedAccount account = new VersionedAccount(number, minimumCents,
+            new BalanceVersion(stamp, initialCents, null));
+        if (accounts.putIfAbsent(number, account) != null) {
+            throw new IllegalArgumentException("Account already exists: " + number);
+        }
+        commit(stamp);
+    }
+
+    public boolean deposit(String number, long amountCents) {
+        return amountCents > 0 && write(new String[] { number }, new long[] { amountCents });
+    }
+
+    public boolean withdraw(String number, long amountCents) {
+        return amountCents > 0 && write(new String[] { number }, new long[] { -amountCents });
+    }
+
+    public boolean transfer(String fromNumber, String toNumber, long amountCents) {
+        if (amountCents <= 0 || fromNumber.equals(toNumber)) {
+            return false;
+        }
+        return fromNumber.compareTo(toNumber) < 0
+            ? write(new String[] { fromNumber, toNumber }, new long[] { -amountCents, amountCents })
+            : write(new String[] { toNumber, fromNumber }, new long[] { amountCents, -amountCents });
+    }
+
+    // Latest committed balance
+    public long getBalanceCents(String number) {
+        VersionedAccount account = requireAccount(number);
+        for (BalanceVersion node = account.head.get(); node != null; node = node.older) {
+            if (node.isCommitted()) {
+                return node.balanceCents;
+            }
+        }
+        throw new IllegalStateException("Account has no committed balance: " + number);
+    }
+
+    public long getCurrentVersion() {
+        return visible.get();
+    }
+
+    // Consistent view as of now; close it so old versions can be collected
+    public LedgerSnapshot openSnapshot() {
+        opening.incrementAndGet();
+        try {
+            synchronized (openSnapshots) {
+                long version = visible.get();
+                openSnapshots.merge(version, 1, Integer::sum);
+                snapshotFloor = openSnapshots.firstKey();
+                return new LedgerSnapshot(this, version);
+            }
+        } finally {
+            opening.decrementAndGet();
+        }
+    }
+
+    void releaseSnapshot(long version) {
+        synchronized (openSnapshots) {
+            openSnapshots.computeIfPresent(version, (key, count) -> count == 1 ? null : count - 1);
+            snapshotFloor = openSnapshots.isEmpty() ? Long.MAX_VALUE : openSnapshots.firstKey();
+        }
+        collectGarbage();
+    }
+
+    // Drop versions that no open snapshot (or the present) can still read
+    public void collectGarbage() {
+        long oldestNeeded;
+        synchronized (openSnapshots) {
+            oldestNeeded = openSnapshots.isEmpty() ? visible.get() : openSnapshots.firstKey();
+        }
+        for (VersionedAccount account : accounts.values()) {
+            for (BalanceVersion node = account.head.get(); node != null; node = node.older) {
+                if (node.isCommitted() && node.stamp.version <= oldestNeeded) {
+                    node.older = null;
+                    break;
+                }
+            }
+        }
+    }
+
+    // Total versions currently retained, for monitoring garbage collection
+    public long countVersions() {
+        long count = 0;
+        for (VersionedAccount account : accounts.values()) {
+            for (BalanceVersion node = account.head.get(); node != null; node = node.older) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Balance of one account as of a version, or null if it did not exist yet
+    Long balanceAt(String number, long version) {
+        VersionedAccount account = accounts.get(number);
+        return account == null ? null : balanceAt(account, version);
+    }
+
+    void forEachAt(long version, BiConsumer<String, Long> action) {
+        for (VersionedAccount account : accounts.values()) {
+            Long balance = balanceAt(account, version);
+            if (balance != null) {
+                action.accept(account.number, balance);
+            }
+        }
+    }
+
+    private static Long balanceAt(VersionedAccount account, long version) {
+        for (BalanceVersion node = account.head.get(); node != null; node = node.older) {
+            if (node.isCommitted() && node.stamp.version <= version) {
+                return node.balanceCents;
+            }
+        }
+        return null;
+    }
+
+    // numbers must be sorted; installs pending heads in that order, then stamps them all at once
+    private boolean write(String[] numbers, long[] deltas) {
+        VersionedAccount[] targets = new VersionedAccount[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            targets[i] = requireAccount(numbers[i]);
+        }
+
+        WriteStamp stamp = new WriteStamp();
+        BalanceVersion[] installed = new BalanceVersion[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            VersionedAccount account = targets[i];
+            while (true) {
+                BalanceVersion head = account.head.get();
+                if (head.stamp.version == PENDING) {
+                    // Another write to this account is finishing; wait so versions stay ordered
+                    Thread.onSpinWait();
+                    continue;
+                }
+                BalanceVersion base = head.isCommitted() ? head : latestCommitted(head);
+                long updated = base.balanceCents + deltas[i];
+                if (deltas[i] < 0 && updated < account.minimumCents) {
+                    rollback(targets, installed, i, stamp);
+                    return false;
+                }
+                BalanceVersion node = new BalanceVersion(stamp, updated, base);
+                if (account.head.compareAndSet(head, node)) {
+                    installed[i] = node;
+                    break;
+                }
+            }
+        }
+        commit(stamp);
+        trim(installed);
+        return true;
+    }
+
+    // Constant-time pruning after a commit: drop everything below the new head when no
+    // snapshot is older than it, or below the previous version when that one is the
+    // newest an open snapshot can read. Longer chains are left to collectGarbage().
+    private void trim(BalanceVersion[] committed) {
+        if (opening.get() != 0) {
+            return;
+        }
+        long floor = snapshotFloor;
+        for (BalanceVersion node : committed) {
+            BalanceVersion base = node.older;
+            if (node.stamp.version <= floor) {
+                node.older = null;
+            } else if (base != null && base.isCommitted() && base.stamp.version <= floor) {
+                base.older = null;
+            }
+        }
+    }
+
+    // Takes the next version, stamps it, then moves the watermark past it in version
+    // order; the wait is only for writers that took a version just before this one
+    private void commit(WriteStamp stamp) {
+        long version = clock.incrementAndGet();
+        stamp.version = version;
+        while (visible.get() != version - 1) {
+            Thread.onSpinWait();
+        }
+        visible.set(version);
+    }
+
+    // Undo heads installed so far; nobody can build on a pending head, so it is still the head
+    private static void rollback(VersionedAccount[] targets, BalanceVersion[] installed, int count, WriteStamp stamp) {
+        for (int j = 0; j < count; j++) {
+            targets[j].head.set(installed[j].older);
+        }
+        stamp.version = ABORTED;
+    }
+
+    private static BalanceVersion latestCommitted(BalanceVersion node) {
+        while (!node.isCommitted()) {
+            node = node.older;
+        }
+        return node;
+    }
+
+    private VersionedAccount requireAccount(String number) {
+        VersionedAccount account = accounts.get(number);
+        if (account == null) {
+            throw new IllegalArgumentException("Unknown account: " + number);
+        }
+        return account;
+    }
+
+    // Self-check: version chains stay bounded by writes alone, with and without a snapshot
+    public static void main(String[] args) {
+        VersionedLedger ledger = new VersionedLedger();
+        ledger.openAccount("A", 1_000_000, 0);
+        ledger.openAccount("B", 1_000_000, 0);
+        for (int i = 0; i < 100_000; i++) {
+            ledger.transfer(i % 2 == 0 ? "A" : "B", i % 2 == 0 ? "B" : "A", 1);
+        }
+        report("No snapshots, 100000 transfers", ledger.countVersions(), 2);
+
+        try (LedgerSnapshot snapshot = ledger.openSnapshot()) {
+            for (int i = 0; i < 1_000; i++) {
+                ledger.deposit("A", 1);
+            }
+            // A keeps its new head, the version the snapshot reads, and the ones between
+            report("Snapshot open, 1000 deposits", ledger.countVersions(), 1 + 1_001);
+            report("Snapshot still reads the old balance", snapshot.getBalanceCents("A"), 1_000_000);
+        }
+        ledger.deposit("A", 1);
+        report("Snapshot closed, one more write", ledger.countVersions(), 2);
+    }
+
+    private static void report(String check, long actual, long expected) {
+        System.out.println((actual == expected ? "✅ " : "❌ ") + check + ": " + actual
+            + (actual == expected ? "" : " (expected " + expected + ")"));
+    }
+}
+
+// LedgerSnapshot.java - Read-only view of every balance at one version
+class LedgerSnapshot implements AutoCloseable {
+    private final VersionedLedger ledger;
+    private final long version;
+    private boolean closed;
+
+    LedgerSnapshot(VersionedLedger ledger, long version) {
+        this.ledger = ledger;
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Balance as of this snapshot, or null if the account did not exist yet
+    public Long getBalanceCents(String number) {
+        return ledger.balanceAt(number, version);
+    }
+
+    // Visit every account that existed at this version, in account-number order
+    public void forEach(BiConsumer<String, Long> action) {
+        ledger.forEachAt(version, action);
+    }
+
+    public long getTotalCents() {
+        long[] total = new long[1];
+        forEach((number, balance) -> total[0] += balance);
+        return total[0];
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            ledger.releaseSnapshot(version);
+        }
+    }
+}